@@ -0,0 +1,84 @@
+package me.jmhend.PinchListView.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.jmhend.PinchListView.core.AnchorResolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Anchor lookup and collapsed-group detection at the start of a pinch, 
+ * over row geometry of increasing size.
+ *
+ * @author jmhend
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnchorBenchmark {
+
+	private static final int FOCUS_COUNT = 1024;
+
+	/**
+	 * Grouping vicinity at 160dpi, as PinchListView uses.
+	 */
+	private static final int VICINITY = 20;
+
+	@Param({ "100", "10000", "1000000" })
+	public int rows;
+
+	/**
+	 * Height of the pinchable rows: collapsed, so groups form, or expanded.
+	 */
+	@Param({ "12", "120" })
+	public int pinchHeight;
+
+	private SyntheticRows.ArrayGeometry mGeometry;
+	private final int[] mFocusYs = new int[FOCUS_COUNT];
+	private int mFocusIndex;
+
+	@Setup
+	public void setUp() {
+		mGeometry = new SyntheticRows(rows).layOut(pinchHeight);
+		final Random random = new Random(42);
+		final int totalHeight = mGeometry.getTotalHeight();
+		for (int i = 0; i < FOCUS_COUNT; i++) {
+			mFocusYs[i] = random.nextInt(totalHeight);
+		}
+	}
+
+	private int nextFocusY() {
+		mFocusIndex = (mFocusIndex + 1) & (FOCUS_COUNT - 1);
+		return mFocusYs[mFocusIndex];
+	}
+
+	@Benchmark
+	public int findAnchor() {
+		return AnchorResolver.findAnchor(mGeometry, nextFocusY(), SyntheticRows.COLLAPSED_HEIGHT, VICINITY);
+	}
+
+	@Benchmark
+	public int findGroupCenter() {
+		return AnchorResolver.findGroupCenter(mGeometry, nextFocusY(), SyntheticRows.COLLAPSED_HEIGHT, VICINITY);
+	}
+
+	@Benchmark
+	public int findFirstRowBelow() {
+		return AnchorResolver.findFirstRowBelow(mGeometry, nextFocusY());
+	}
+}
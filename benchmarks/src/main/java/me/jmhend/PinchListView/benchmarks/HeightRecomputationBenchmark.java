@@ -0,0 +1,106 @@
+package me.jmhend.PinchListView.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import me.jmhend.PinchListView.core.PinchMath;
+import me.jmhend.PinchListView.core.PinchabilityIndex;
+import me.jmhend.PinchListView.core.RowOffsetIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What a pinch frame costs to recompute: scaling the pinch height, the height of every
+ * visible row, the anchor's content offset and the scroll range.
+ * Also the O(n) offset index rebuild that follows a data set change.
+ *
+ * @author jmhend
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeightRecomputationBenchmark {
+
+	@Param({ "100", "10000", "1000000" })
+	public int rows;
+
+	private SyntheticRows mRows;
+	private PinchabilityIndex mPinchability;
+	private RowOffsetIndex mOffsets;
+	private int mAnchorPosition;
+	private int mPinchHeight;
+	private float mScaleFactor;
+
+	@Setup
+	public void setUp() {
+		mRows = new SyntheticRows(rows);
+		mPinchability = new PinchabilityIndex();
+		mPinchability.reset(mRows, rows);
+		mOffsets = new RowOffsetIndex(mRows);
+		mOffsets.setPinchRange(SyntheticRows.COLLAPSED_HEIGHT, SyntheticRows.EXPANDED_HEIGHT);
+		mOffsets.setPinchHeight(SyntheticRows.EXPANDED_HEIGHT);
+		mOffsets.getCount();
+		mAnchorPosition = rows / 2;
+		mPinchHeight = SyntheticRows.EXPANDED_HEIGHT;
+		mScaleFactor = 0.99f;
+	}
+
+	/**
+	 * One onScale(): the new pinch height, every visible row's height, 
+	 * the anchor's offset and the scroll range.
+	 */
+	@Benchmark
+	public int pinchFrame() {
+		// Pinch back and forth across the whole range.
+		int height = PinchMath.scaleHeight(mPinchHeight, mScaleFactor, 
+				SyntheticRows.COLLAPSED_HEIGHT, SyntheticRows.EXPANDED_HEIGHT);
+		if (height == SyntheticRows.COLLAPSED_HEIGHT || height == SyntheticRows.EXPANDED_HEIGHT) {
+			mScaleFactor = 2.0f - mScaleFactor;
+		}
+		mPinchHeight = height;
+
+		int sum = 0;
+		final int end = Math.min(mAnchorPosition + SyntheticRows.VISIBLE_ROWS, rows);
+		for (int position = mAnchorPosition; position < end; position++) {
+			if (mPinchability.isPinchable(position)) {
+				sum += PinchMath.rowHeight(height, mRows.getExpandedRowHeight(position), 
+						SyntheticRows.COLLAPSED_HEIGHT, SyntheticRows.EXPANDED_HEIGHT);
+			} else {
+				sum += SyntheticRows.FIXED_HEIGHT;
+			}
+		}
+		mOffsets.setPinchHeight(height);
+		return sum + mOffsets.getOffset(mAnchorPosition) + mOffsets.getTotalHeight();
+	}
+
+	/**
+	 * Maps a content offset back to a row, as scrolling to a position does.
+	 */
+	@Benchmark
+	public int positionAtOffset() {
+		mAnchorPosition = (mAnchorPosition * 31 + 17) % rows;
+		return mOffsets.getPositionAtOffset(mOffsets.getOffset(mAnchorPosition));
+	}
+
+	/**
+	 * Rebuilds the offset index, as after notifyDataSetChanged().
+	 */
+	@Benchmark
+	public int rebuildOffsets() {
+		mOffsets.invalidate();
+		return mOffsets.getCount();
+	}
+}
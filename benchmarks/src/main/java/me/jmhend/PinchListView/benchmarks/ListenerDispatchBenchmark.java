@@ -0,0 +1,134 @@
+package me.jmhend.PinchListView.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import me.jmhend.PinchListView.core.PinchDispatcher;
+import me.jmhend.PinchListView.core.PinchMath;
+import me.jmhend.PinchListView.core.PinchabilityIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Dispatching a pinch frame to its listeners through PinchDispatcher, the loop 
+ * PinchListView.dispatchPinchFrame() runs: collecting the visible pinchable rows, then 
+ * calling each listener the throttle lets through, once per frame or once per row.
+ * 24 visible rows is a phone at the expanded height; 400 is the same screen collapsed.
+ *
+ * @author jmhend
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerDispatchBenchmark {
+
+	@Param({ "10000", "1000000" })
+	public int rows;
+
+	@Param({ "24", "400" })
+	public int visibleRows;
+
+	@Param({ "1", "8" })
+	public int listeners;
+
+	/**
+	 * True for OnItemPinchListener-style listeners, called per row; 
+	 * false for OnPinchFrameListener-style, called once per frame.
+	 */
+	@Param({ "true", "false" })
+	public boolean perItem;
+
+	/**
+	 * Quantization of each listener; 0 dispatches every frame.
+	 */
+	@Param({ "0", "0.05" })
+	public float percentStep;
+
+	/**
+	 * Hands every callback to the Blackhole, as a listener touching each row would.
+	 * @author jmhend
+	 *
+	 */
+	private static final class BlackholeDispatcher extends PinchDispatcher<Object> {
+		private final Blackhole mBlackhole;
+
+		private BlackholeDispatcher(Blackhole blackhole) {
+			mBlackhole = blackhole;
+		}
+
+		@Override
+		protected void onFrame(Object listener, int height, float heightPercent, PinchDispatcher.Frame<Object> frame) {
+			for (int i = 0; i < frame.getCount(); i++) {
+				mBlackhole.consume(frame.getView(i));
+				mBlackhole.consume(frame.getHeight(i));
+			}
+		}
+
+		@Override
+		protected void onItem(Object listener, Object view, int height, float heightPercent) {
+			mBlackhole.consume(view);
+			mBlackhole.consume(height);
+		}
+	}
+
+	private PinchabilityIndex mPinchability;
+	private BlackholeDispatcher mDispatcher;
+	private Object[] mViews;
+	private int mFirstPosition;
+	private int mPinchHeight;
+	private int mPinchStep;
+	private long mNow;
+
+	@Setup
+	public void setUp(Blackhole bh) {
+		final SyntheticRows source = new SyntheticRows(rows);
+		mPinchability = new PinchabilityIndex();
+		mPinchability.reset(source, rows);
+		mDispatcher = new BlackholeDispatcher(bh);
+		for (int i = 0; i < listeners; i++) {
+			mDispatcher.addListener(new Object(), perItem, percentStep, 0);
+		}
+		mViews = new Object[visibleRows];
+		for (int i = 0; i < visibleRows; i++) {
+			mViews[i] = new Object();
+		}
+		mFirstPosition = Math.max(rows / 2 - visibleRows / 2, 0);
+		mPinchHeight = SyntheticRows.EXPANDED_HEIGHT;
+		mPinchStep = -1;
+	}
+
+	@Benchmark
+	public void dispatchFrame() {
+		// A pixel of pinch per frame, back and forth.
+		mPinchHeight += mPinchStep;
+		if (mPinchHeight <= SyntheticRows.COLLAPSED_HEIGHT || mPinchHeight >= SyntheticRows.EXPANDED_HEIGHT) {
+			mPinchStep = -mPinchStep;
+		}
+		mNow += 16;
+
+		final int end = Math.min(mFirstPosition + visibleRows, rows);
+		for (int position = mFirstPosition; position < end; position++) {
+			if (mPinchability.isPinchable(position)) {
+				mDispatcher.add(mViews[position - mFirstPosition], position, mPinchHeight);
+			}
+		}
+
+		final float heightPercent = PinchMath.heightPercentage(mPinchHeight, 
+				SyntheticRows.EXPANDED_HEIGHT, SyntheticRows.COLLAPSED_HEIGHT);
+		mDispatcher.dispatch(mPinchHeight, heightPercent, mNow);
+	}
+}
@@ -0,0 +1,70 @@
+package me.jmhend.PinchListView.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.jmhend.PinchListView.core.SpanMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The focal point and span maths SupportScaleGestureDetector runs on every MotionEvent.
+ *
+ * @author jmhend
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanMathBenchmark {
+
+	private static final int SAMPLE_COUNT = 256;
+
+	@Param({ "2", "5", "10" })
+	public int pointers;
+
+	private final SpanMath mSpanMath = new SpanMath();
+	private float[][] mXs;
+	private float[][] mYs;
+	private int mSample;
+
+	@Setup
+	public void setUp() {
+		final Random random = new Random(42);
+		mXs = new float[SAMPLE_COUNT][pointers];
+		mYs = new float[SAMPLE_COUNT][pointers];
+		for (int s = 0; s < SAMPLE_COUNT; s++) {
+			for (int i = 0; i < pointers; i++) {
+				mXs[s][i] = random.nextFloat() * 1080;
+				mYs[s][i] = random.nextFloat() * 1920;
+			}
+		}
+	}
+
+	@Benchmark
+	public float move() {
+		mSample = (mSample + 1) & (SAMPLE_COUNT - 1);
+		mSpanMath.compute(mXs[mSample], mYs[mSample], pointers, -1);
+		return mSpanMath.getSpan();
+	}
+
+	@Benchmark
+	public float pointerUp() {
+		mSample = (mSample + 1) & (SAMPLE_COUNT - 1);
+		mSpanMath.compute(mXs[mSample], mYs[mSample], pointers, pointers - 1);
+		return mSpanMath.getSpan();
+	}
+}
@@ -0,0 +1,148 @@
+package me.jmhend.PinchListView.benchmarks;
+
+import me.jmhend.PinchListView.core.RowGeometry;
+import me.jmhend.PinchListView.core.RowOffsetIndex;
+import me.jmhend.PinchListView.core.RowPinchability;
+
+/**
+ * A synthetic list: every third and fourth row is pinchable, as in the demo,
+ * and every fifth pinchable row has its own expanded height.
+ *
+ * @author jmhend
+ *
+ */
+final class SyntheticRows implements RowOffsetIndex.RowSource, RowPinchability {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	static final int COLLAPSED_HEIGHT = 12;
+	static final int EXPANDED_HEIGHT = 120;
+	static final int TALL_EXPANDED_HEIGHT = 180;
+	static final int FIXED_HEIGHT = 64;
+
+	/**
+	 * Rows on screen at once, as on a phone at the expanded height.
+	 */
+	static final int VISIBLE_ROWS = 24;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final int mCount;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param count
+	 */
+	SyntheticRows(int count) {
+		mCount = count;
+	}
+
+////=========================================================================================
+//// Rows
+////=========================================================================================
+
+	/*
+	 * (non-Javadoc)
+	 * @see me.jmhend.PinchListView.core.RowOffsetIndex.RowSource#getRowCount()
+	 */
+	@Override
+	public int getRowCount() {
+		return mCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see me.jmhend.PinchListView.core.RowPinchability#isRowPinchable(int)
+	 */
+	@Override
+	public boolean isRowPinchable(int position) {
+		return position % 3 == 0 || position % 4 == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see me.jmhend.PinchListView.core.RowOffsetIndex.RowSource#getExpandedRowHeight(int)
+	 */
+	@Override
+	public int getExpandedRowHeight(int position) {
+		if (!isRowPinchable(position)) {
+			return FIXED_HEIGHT;
+		}
+		return position % 5 == 0 ? TALL_EXPANDED_HEIGHT : EXPANDED_HEIGHT;
+	}
+
+	/**
+	 * @param pinchHeight
+	 * @return Every row laid out at 'pinchHeight', with the reference expanded height.
+	 */
+	ArrayGeometry layOut(int pinchHeight) {
+		final int[] tops = new int[mCount];
+		final int[] heights = new int[mCount];
+		int top = 0;
+		for (int i = 0; i < mCount; i++) {
+			heights[i] = isRowPinchable(i) ? pinchHeight : FIXED_HEIGHT;
+			tops[i] = top;
+			top += heights[i];
+		}
+		return new ArrayGeometry(tops, heights);
+	}
+
+////=========================================================================================
+//// ArrayGeometry
+////=========================================================================================
+
+	/**
+	 * RowGeometry over arrays, like PinchListView's cached child geometry.
+	 */
+	static final class ArrayGeometry implements RowGeometry {
+		private final int[] mTops;
+		private final int[] mHeights;
+
+		private ArrayGeometry(int[] tops, int[] heights) {
+			mTops = tops;
+			mHeights = heights;
+		}
+
+		/**
+		 * @return The bottom of the last row.
+		 */
+		int getTotalHeight() {
+			final int count = mTops.length;
+			return count == 0 ? 0 : mTops[count - 1] + mHeights[count - 1];
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.RowGeometry#getRowCount()
+		 */
+		@Override
+		public int getRowCount() {
+			return mTops.length;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.RowGeometry#getRowTop(int)
+		 */
+		@Override
+		public int getRowTop(int index) {
+			return mTops[index];
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.RowGeometry#getRowHeight(int)
+		 */
+		@Override
+		public int getRowHeight(int index) {
+			return mHeights[index];
+		}
+	}
+}
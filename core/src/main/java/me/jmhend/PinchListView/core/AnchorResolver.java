@@ -0,0 +1,105 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Chooses the row to hold in place while pinching: the middle of a group of collapsed
+ * rows near the pinch focus if there is one, otherwise the row under the focus.
+ *
+ * @author jmhend
+ *
+ */
+public final class AnchorResolver {
+
+	private AnchorResolver() { }
+
+////=========================================================================================
+//// Anchor
+////=========================================================================================
+
+	/**
+	 * O(log n) in the number of rows.
+	 * @param rows
+	 * @param focusY In the same coordinates as the rows' tops.
+	 * @param collapsedHeight Height of a collapsed row.
+	 * @param vicinity How far above and below 'focusY' to look for collapsed rows.
+	 * @return Index of the row to hold in place while pinching around 'focusY', or -1 if none.
+	 */
+	public static int findAnchor(RowGeometry rows, int focusY, int collapsedHeight, int vicinity) {
+		final int grouped = findGroupCenter(rows, focusY, collapsedHeight, vicinity);
+		if (grouped >= 0) {
+			return grouped;
+		}
+		final int count = rows.getRowCount();
+		if (count == 0) {
+			return -1;
+		}
+
+		// The last row whose top is at or above 'focusY'; the first row if none are.
+		final int index = Math.max(findFirstRowBelow(rows, focusY) - 1, 0);
+		if (index == count - 1 && focusY >= rows.getRowTop(index) + rows.getRowHeight(index)) {
+			return -1;
+		}
+		return index;
+	}
+
+	/**
+	 * Finds the middle of the first run of collapsed rows whose tops lie within 
+	 * 'vicinity' of 'focusY'. O(log n) to find the vicinity, then
+	 * proportional to the rows in it.
+	 * @param rows
+	 * @param focusY
+	 * @param collapsedHeight
+	 * @param vicinity
+	 * @return Index of the grouping's middle row, or -1 if there's none.
+	 */
+	public static int findGroupCenter(RowGeometry rows, int focusY, int collapsedHeight, int vicinity) {
+		final int searchStart = focusY - vicinity;
+		final int searchEnd = focusY + vicinity;
+
+		int groupStart = -1;
+		int groupCount = 0;
+		final int count = rows.getRowCount();
+		for (int i = findFirstRowBelow(rows, searchStart - 1); i < count; i++) {
+			if (rows.getRowTop(i) > searchEnd) {
+				break;
+			}
+
+			// Row is collapsed.
+			if (rows.getRowHeight(i) == collapsedHeight) {
+				if (groupCount == 0) {
+					groupStart = i;
+				}
+				groupCount++;
+
+			} else {
+				// We're iterating over a collapsed grouping, but passed the end of it.
+				if (groupCount > 0) {
+					break;
+				}
+			}
+		}
+
+		if (groupCount > 0) {
+			return groupStart + groupCount / 2;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param rows
+	 * @param y
+	 * @return Index of the first row whose top is below 'y', or the row count if none are.
+	 */
+	public static int findFirstRowBelow(RowGeometry rows, int y) {
+		int low = 0;
+		int high = rows.getRowCount();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (rows.getRowTop(mid) > y) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,78 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Decides which pinch frames a listener hears about: at most one per 'percentStep' 
+ * of the pinch, and at most one per 'minIntervalMillis'. The fully collapsed and 
+ * fully expanded frames always get through, once each.
+ *
+ * @author jmhend
+ *
+ */
+public final class DispatchThrottle {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int BUCKET_NONE = Integer.MIN_VALUE;
+	private static final int BUCKET_COLLAPSED = Integer.MIN_VALUE + 1;
+	private static final int BUCKET_EXPANDED = Integer.MAX_VALUE;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final float mPercentStep;
+	private final long mMinIntervalMillis;
+	private int mLastBucket = BUCKET_NONE;
+	private long mLastDispatchTime;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param percentStep Quantization of the height percentage, or 0 for none.
+	 * @param minIntervalMillis Minimum time between dispatches, or 0 for none.
+	 */
+	public DispatchThrottle(float percentStep, long minIntervalMillis) {
+		mPercentStep = percentStep;
+		mMinIntervalMillis = minIntervalMillis;
+	}
+
+////=========================================================================================
+//// Throttling
+////=========================================================================================
+
+	/**
+	 * @param heightPercent
+	 * @param now
+	 * @return True if the listener should be called for 'heightPercent' at time 'now'.
+	 */
+	public boolean shouldDispatch(float heightPercent, long now) {
+		if (mPercentStep <= 0.0f && mMinIntervalMillis <= 0) {
+			return true;
+		}
+		final int bucket;
+		if (heightPercent <= 0.0f) {
+			bucket = BUCKET_COLLAPSED;
+		} else if (heightPercent >= 1.0f) {
+			bucket = BUCKET_EXPANDED;
+		} else if (mPercentStep > 0.0f) {
+			bucket = (int) (heightPercent / mPercentStep);
+		} else {
+			bucket = BUCKET_NONE;
+		}
+
+		final boolean terminal = bucket == BUCKET_COLLAPSED || bucket == BUCKET_EXPANDED;
+		if (bucket == mLastBucket && (mPercentStep > 0.0f || terminal)) {
+			return false;
+		}
+		if (!terminal && mMinIntervalMillis > 0 && now - mLastDispatchTime < mMinIntervalMillis) {
+			return false;
+		}
+		mLastBucket = bucket;
+		mLastDispatchTime = now;
+		return true;
+	}
+}
@@ -0,0 +1,168 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Open-addressed map from row key (item id or position) to measured expanded height.
+ * Lookups never allocate.
+ *
+ * @author jmhend
+ *
+ */
+public class ExpandedHeightCache {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Marks an empty slot. A row with this key is never cached.
+	 */
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private long[] mKeys;
+	private int[] mValues;
+	private int mSize;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * Empty constructor.
+	 */
+	public ExpandedHeightCache() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+////=========================================================================================
+//// Map
+////=========================================================================================
+
+	/**
+	 * @param key
+	 * @param missing
+	 * @return The height cached for 'key', or 'missing' if there is none.
+	 */
+	public int get(long key, int missing) {
+		if (key == EMPTY) {
+			return missing;
+		}
+		final int mask = mKeys.length - 1;
+		for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+			final long k = mKeys[i];
+			if (k == key) {
+				return mValues[i];
+			}
+			if (k == EMPTY) {
+				return missing;
+			}
+		}
+	}
+
+	/**
+	 * Caches 'height' for 'key'.
+	 * @param key
+	 * @param height
+	 */
+	public void put(long key, int height) {
+		if (key == EMPTY) {
+			return;
+		}
+		if ((mSize + 1) * 2 > mKeys.length) {
+			rehash(mKeys.length * 2);
+		}
+		final int mask = mKeys.length - 1;
+		for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+			final long k = mKeys[i];
+			if (k == key) {
+				mValues[i] = height;
+				return;
+			}
+			if (k == EMPTY) {
+				mKeys[i] = key;
+				mValues[i] = height;
+				mSize++;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes any height cached for 'key'.
+	 * @param key
+	 */
+	public void remove(long key) {
+		if (key == EMPTY) {
+			return;
+		}
+		final int mask = mKeys.length - 1;
+		int i = slot(key, mask);
+		while (mKeys[i] != key) {
+			if (mKeys[i] == EMPTY) {
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+
+		// Shift later entries of the probe chain back into the hole.
+		int hole = i;
+		mKeys[hole] = EMPTY;
+		mSize--;
+		for (i = (hole + 1) & mask; mKeys[i] != EMPTY; i = (i + 1) & mask) {
+			final int home = slot(mKeys[i], mask);
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				mKeys[hole] = mKeys[i];
+				mValues[hole] = mValues[i];
+				mKeys[i] = EMPTY;
+				hole = i;
+			}
+		}
+	}
+
+	/**
+	 * Removes every cached height.
+	 */
+	public void clear() {
+		if (mSize == 0) {
+			return;
+		}
+		for (int i = 0; i < mKeys.length; i++) {
+			mKeys[i] = EMPTY;
+		}
+		mSize = 0;
+	}
+
+////=========================================================================================
+//// Hashing
+////=========================================================================================
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		mKeys = new long[capacity];
+		mValues = new int[capacity];
+		for (int i = 0; i < capacity; i++) {
+			mKeys[i] = EMPTY;
+		}
+	}
+
+	private void rehash(int capacity) {
+		final long[] keys = mKeys;
+		final int[] values = mValues;
+		allocate(capacity);
+		mSize = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				put(keys[i], values[i]);
+			}
+		}
+	}
+}
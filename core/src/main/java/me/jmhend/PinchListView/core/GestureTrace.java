@@ -0,0 +1,373 @@
+package me.jmhend.PinchListView.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A recorded stream of touch events: for each event its action, down time, pointer ids,
+ * and one or more samples (the batched history, then the current position), each with
+ * a timestamp and every pointer's coordinates.
+ *
+ * Recording appends to flat arrays that grow by doubling, so it doesn't allocate per event
+ * once warmed up. writeTo() and readFrom() use a compact binary format:
+ * <pre>
+ * int     magic 'PLVT'
+ * byte    version (1)
+ * varint  event count
+ * per event:
+ *   varint  action
+ *   varint  pointer count
+ *   varint  sample count
+ *   varint  pointer id, for each pointer
+ *   zigzag  down time - first sample's time
+ *   per sample:
+ *     zigzag  time - previous sample's time (the first sample of the trace is relative to 0)
+ *     float   x, float y, for each pointer
+ * </pre>
+ *
+ * @author jmhend
+ *
+ */
+public final class GestureTrace {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int MAGIC = 0x504C5654;
+	private static final int VERSION = 1;
+	private static final int INITIAL_CAPACITY = 64;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private int mEventCount;
+	private int[] mActions = new int[INITIAL_CAPACITY];
+	private long[] mDownTimes = new long[INITIAL_CAPACITY];
+	private int[] mPointerCounts = new int[INITIAL_CAPACITY];
+	private int[] mSampleCounts = new int[INITIAL_CAPACITY];
+	private int[] mIdStarts = new int[INITIAL_CAPACITY];
+	private int[] mSampleStarts = new int[INITIAL_CAPACITY];
+	private int[] mCoordStarts = new int[INITIAL_CAPACITY];
+
+	private int mIdCount;
+	private int[] mIds = new int[INITIAL_CAPACITY];
+	private int mSampleCount;
+	private long[] mSampleTimes = new long[INITIAL_CAPACITY];
+	private int mCoordCount;
+	private float[] mXs = new float[INITIAL_CAPACITY];
+	private float[] mYs = new float[INITIAL_CAPACITY];
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * Empty trace.
+	 */
+	public GestureTrace() { }
+
+////=========================================================================================
+//// Recording
+////=========================================================================================
+
+	/**
+	 * Appends an event, whose pointer ids and samples are then filled in
+	 * with setPointerId(), setSampleTime() and setCoords().
+	 * @param action The event's raw action, including any pointer index.
+	 * @param downTime
+	 * @param pointerCount
+	 * @param sampleCount The number of historical samples, plus one for the current one.
+	 * @return The new event's index.
+	 */
+	public int addEvent(int action, long downTime, int pointerCount, int sampleCount) {
+		if (pointerCount < 1 || sampleCount < 1) {
+			throw new IllegalArgumentException("A traced event needs at least one pointer and one sample!");
+		}
+		final int event = mEventCount;
+		if (event == mActions.length) {
+			final int capacity = event * 2;
+			mActions = grow(mActions, capacity);
+			mDownTimes = grow(mDownTimes, capacity);
+			mPointerCounts = grow(mPointerCounts, capacity);
+			mSampleCounts = grow(mSampleCounts, capacity);
+			mIdStarts = grow(mIdStarts, capacity);
+			mSampleStarts = grow(mSampleStarts, capacity);
+			mCoordStarts = grow(mCoordStarts, capacity);
+		}
+		mActions[event] = action;
+		mDownTimes[event] = downTime;
+		mPointerCounts[event] = pointerCount;
+		mSampleCounts[event] = sampleCount;
+
+		mIdStarts[event] = mIdCount;
+		mIdCount += pointerCount;
+		if (mIdCount > mIds.length) {
+			mIds = grow(mIds, Math.max(mIds.length * 2, mIdCount));
+		}
+		mSampleStarts[event] = mSampleCount;
+		mSampleCount += sampleCount;
+		if (mSampleCount > mSampleTimes.length) {
+			mSampleTimes = grow(mSampleTimes, Math.max(mSampleTimes.length * 2, mSampleCount));
+		}
+		mCoordStarts[event] = mCoordCount;
+		mCoordCount += pointerCount * sampleCount;
+		if (mCoordCount > mXs.length) {
+			final int capacity = Math.max(mXs.length * 2, mCoordCount);
+			mXs = grow(mXs, capacity);
+			mYs = grow(mYs, capacity);
+		}
+		mEventCount++;
+		return event;
+	}
+
+	/**
+	 * @param event
+	 * @param pointerIndex
+	 * @param pointerId
+	 */
+	public void setPointerId(int event, int pointerIndex, int pointerId) {
+		mIds[mIdStarts[event] + pointerIndex] = pointerId;
+	}
+
+	/**
+	 * @param event
+	 * @param sample
+	 * @param time
+	 */
+	public void setSampleTime(int event, int sample, long time) {
+		mSampleTimes[mSampleStarts[event] + sample] = time;
+	}
+
+	/**
+	 * @param event
+	 * @param sample
+	 * @param pointerIndex
+	 * @param x
+	 * @param y
+	 */
+	public void setCoords(int event, int sample, int pointerIndex, float x, float y) {
+		final int index = coordIndex(event, sample, pointerIndex);
+		mXs[index] = x;
+		mYs[index] = y;
+	}
+
+	/**
+	 * Removes every event.
+	 */
+	public void clear() {
+		mEventCount = 0;
+		mIdCount = 0;
+		mSampleCount = 0;
+		mCoordCount = 0;
+	}
+
+////=========================================================================================
+//// Events
+////=========================================================================================
+
+	/**
+	 * @return The number of events recorded.
+	 */
+	public int getEventCount() {
+		return mEventCount;
+	}
+
+	/**
+	 * @return The raw action of 'event', including any pointer index.
+	 */
+	public int getAction(int event) {
+		return mActions[event];
+	}
+
+	/**
+	 * @return The time 'event's gesture went down.
+	 */
+	public long getDownTime(int event) {
+		return mDownTimes[event];
+	}
+
+	/**
+	 * @return The number of pointers in 'event'.
+	 */
+	public int getPointerCount(int event) {
+		return mPointerCounts[event];
+	}
+
+	/**
+	 * @return The id of the pointer at 'pointerIndex' in 'event'.
+	 */
+	public int getPointerId(int event, int pointerIndex) {
+		return mIds[mIdStarts[event] + pointerIndex];
+	}
+
+	/**
+	 * @param event
+	 * @return The event's historical samples, plus one for its current sample, which is last.
+	 */
+	public int getSampleCount(int event) {
+		return mSampleCounts[event];
+	}
+
+	/**
+	 * @return The time of 'sample' in 'event'.
+	 */
+	public long getSampleTime(int event, int sample) {
+		return mSampleTimes[mSampleStarts[event] + sample];
+	}
+
+	/**
+	 * @return The X coordinate of the pointer at 'pointerIndex' in 'sample' of 'event'.
+	 */
+	public float getX(int event, int sample, int pointerIndex) {
+		return mXs[coordIndex(event, sample, pointerIndex)];
+	}
+
+	/**
+	 * @return The Y coordinate of the pointer at 'pointerIndex' in 'sample' of 'event'.
+	 */
+	public float getY(int event, int sample, int pointerIndex) {
+		return mYs[coordIndex(event, sample, pointerIndex)];
+	}
+
+	private int coordIndex(int event, int sample, int pointerIndex) {
+		return mCoordStarts[event] + sample * mPointerCounts[event] + pointerIndex;
+	}
+
+////=========================================================================================
+//// Serialization
+////=========================================================================================
+
+	/**
+	 * Writes the trace to 'out' in the binary format.
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		writeVarint(data, mEventCount);
+		long previousTime = 0;
+		for (int event = 0; event < mEventCount; event++) {
+			final int pointerCount = mPointerCounts[event];
+			final int sampleCount = mSampleCounts[event];
+			writeVarint(data, mActions[event]);
+			writeVarint(data, pointerCount);
+			writeVarint(data, sampleCount);
+			for (int p = 0; p < pointerCount; p++) {
+				writeVarint(data, getPointerId(event, p));
+			}
+			writeZigzag(data, mDownTimes[event] - getSampleTime(event, 0));
+			for (int s = 0; s < sampleCount; s++) {
+				final long time = getSampleTime(event, s);
+				writeZigzag(data, time - previousTime);
+				previousTime = time;
+				for (int p = 0; p < pointerCount; p++) {
+					data.writeFloat(getX(event, s, p));
+					data.writeFloat(getY(event, s, p));
+				}
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a trace written by writeTo().
+	 * @param in
+	 * @return The trace.
+	 * @throws IOException If 'in' doesn't hold a trace this version understands.
+	 */
+	public static GestureTrace readFrom(InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a gesture trace!");
+		}
+		final int version = data.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported gesture trace version " + version);
+		}
+		final GestureTrace trace = new GestureTrace();
+		final int eventCount = (int) readVarint(data);
+		long previousTime = 0;
+		for (int i = 0; i < eventCount; i++) {
+			final int action = (int) readVarint(data);
+			final int pointerCount = (int) readVarint(data);
+			final int sampleCount = (int) readVarint(data);
+			if (pointerCount < 1 || sampleCount < 1) {
+				throw new IOException("Corrupt gesture trace event " + i);
+			}
+			final int event = trace.addEvent(action, 0, pointerCount, sampleCount);
+			for (int p = 0; p < pointerCount; p++) {
+				trace.setPointerId(event, p, (int) readVarint(data));
+			}
+			final long downTimeOffset = readZigzag(data);
+			for (int s = 0; s < sampleCount; s++) {
+				previousTime += readZigzag(data);
+				trace.setSampleTime(event, s, previousTime);
+				for (int p = 0; p < pointerCount; p++) {
+					final float x = data.readFloat();
+					trace.setCoords(event, s, p, x, data.readFloat());
+				}
+			}
+			trace.mDownTimes[event] = trace.getSampleTime(event, 0) + downTimeOffset;
+		}
+		return trace;
+	}
+
+	private static void writeVarint(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static void writeZigzag(DataOutputStream out, long value) throws IOException {
+		writeVarint(out, (value << 1) ^ (value >> 63));
+	}
+
+	private static long readVarint(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= ((long) (b & 0x7F)) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new EOFException("Malformed varint in gesture trace");
+	}
+
+	private static long readZigzag(DataInputStream in) throws IOException {
+		final long value = readVarint(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+////=========================================================================================
+//// Arrays
+////=========================================================================================
+
+	private static int[] grow(int[] array, int capacity) {
+		final int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static long[] grow(long[] array, int capacity) {
+		final long[] grown = new long[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		final float[] grown = new float[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
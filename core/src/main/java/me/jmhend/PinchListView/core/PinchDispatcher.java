@@ -0,0 +1,225 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Collects the rows pinched in a frame and dispatches them to registered listeners,
+ * each throttled by its own DispatchThrottle. A listener either hears about the whole
+ * frame in one call, or about each pinched row in turn.
+ *
+ * Subclasses make the calls, so the dispatch loop is the same whatever the listener
+ * and view types; 'V' is the type of the pinched row's view.
+ *
+ * @author jmhend
+ *
+ */
+public abstract class PinchDispatcher<V> {
+
+////=========================================================================================
+//// Frame
+////=========================================================================================
+
+	/**
+	 * The rows pinched in one frame. Reused between frames.
+	 * @author jmhend
+	 *
+	 */
+	public static final class Frame<V> {
+		private Object[] mViews = new Object[16];
+		private int[] mPositions = new int[16];
+		private int[] mHeights = new int[16];
+		private int mCount;
+
+		private Frame() { }
+
+		/**
+		 * @return The number of rows pinched this frame.
+		 */
+		public int getCount() {
+			return mCount;
+		}
+
+		/**
+		 * @param index
+		 * @return The view of the 'index'th pinched row.
+		 */
+		@SuppressWarnings("unchecked")
+		public V getView(int index) {
+			return (V) mViews[index];
+		}
+
+		/**
+		 * @param index
+		 * @return The adapter position of the 'index'th pinched row.
+		 */
+		public int getPosition(int index) {
+			return mPositions[index];
+		}
+
+		/**
+		 * @param index
+		 * @return The new height of the 'index'th pinched row.
+		 */
+		public int getHeight(int index) {
+			return mHeights[index];
+		}
+
+		private void add(V view, int position, int height) {
+			if (mCount == mViews.length) {
+				final int capacity = mCount * 2;
+				final Object[] views = new Object[capacity];
+				final int[] positions = new int[capacity];
+				final int[] heights = new int[capacity];
+				System.arraycopy(mViews, 0, views, 0, mCount);
+				System.arraycopy(mPositions, 0, positions, 0, mCount);
+				System.arraycopy(mHeights, 0, heights, 0, mCount);
+				mViews = views;
+				mPositions = positions;
+				mHeights = heights;
+			}
+			mViews[mCount] = view;
+			mPositions[mCount] = position;
+			mHeights[mCount] = height;
+			mCount++;
+		}
+
+		private void clear() {
+			for (int i = 0; i < mCount; i++) {
+				mViews[i] = null;
+			}
+			mCount = 0;
+		}
+	}
+
+	/**
+	 * A registered listener, with its throttling state.
+	 * @author jmhend
+	 *
+	 */
+	private static final class Record {
+		private final Object listener;
+		private final boolean perItem;
+		private final DispatchThrottle throttle;
+
+		private Record(Object listener, boolean perItem, float percentStep, long minIntervalMillis) {
+			this.listener = listener;
+			this.perItem = perItem;
+			this.throttle = new DispatchThrottle(percentStep, minIntervalMillis);
+		}
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final Frame<V> mFrame = new Frame<V>();
+	private Record[] mRecords = new Record[0];
+
+////=========================================================================================
+//// Listeners
+////=========================================================================================
+
+	/**
+	 * Listener arrays are copied on write, so listeners may add and remove listeners from their callbacks.
+	 * @param listener
+	 * @param perItem True to call onItem() for each pinched row, false to call onFrame() once per frame.
+	 * @param percentStep Quantization step of the height percentage; 0 to dispatch every change.
+	 * @param minIntervalMillis Minimum time between dispatches; 0 for no limit.
+	 */
+	public void addListener(Object listener, boolean perItem, float percentStep, long minIntervalMillis) {
+		final Record[] records = new Record[mRecords.length + 1];
+		System.arraycopy(mRecords, 0, records, 0, mRecords.length);
+		records[mRecords.length] = new Record(listener, perItem, percentStep, minIntervalMillis);
+		mRecords = records;
+	}
+
+	/**
+	 * Removes the first registration of 'listener', if any.
+	 * @param listener
+	 */
+	public void removeListener(Object listener) {
+		final Record[] records = mRecords;
+		for (int i = 0; i < records.length; i++) {
+			if (records[i].listener == listener) {
+				final Record[] newRecords = new Record[records.length - 1];
+				System.arraycopy(records, 0, newRecords, 0, i);
+				System.arraycopy(records, i + 1, newRecords, i, records.length - i - 1);
+				mRecords = newRecords;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return True if any listener is registered.
+	 */
+	public boolean hasListeners() {
+		return mRecords.length > 0;
+	}
+
+////=========================================================================================
+//// Dispatch
+////=========================================================================================
+
+	/**
+	 * @return The frame being collected, as passed to onFrame().
+	 */
+	public Frame<V> getFrame() {
+		return mFrame;
+	}
+
+	/**
+	 * Adds a pinched row to this frame.
+	 * @param view
+	 * @param position
+	 * @param height
+	 */
+	public void add(V view, int position, int height) {
+		mFrame.add(view, position, height);
+	}
+
+	/**
+	 * Dispatches the rows collected this frame to each listener whose throttle allows it,
+	 * then clears the frame. Does nothing if no rows were collected.
+	 * @param height The new pinch height.
+	 * @param heightPercent
+	 * @param now The time, in milliseconds, the throttles measure intervals by.
+	 */
+	public void dispatch(int height, float heightPercent, long now) {
+		final Frame<V> frame = mFrame;
+		if (frame.mCount == 0) {
+			return;
+		}
+		final Record[] records = mRecords;
+		for (int j = 0; j < records.length; j++) {
+			final Record record = records[j];
+			if (!record.throttle.shouldDispatch(heightPercent, now)) {
+				continue;
+			}
+			if (record.perItem) {
+				for (int i = 0; i < frame.mCount; i++) {
+					onItem(record.listener, frame.getView(i), frame.mHeights[i], heightPercent);
+				}
+			} else {
+				onFrame(record.listener, height, heightPercent, frame);
+			}
+		}
+		frame.clear();
+	}
+
+	/**
+	 * Calls a per-frame 'listener' back.
+	 * @param listener
+	 * @param height The new pinch height.
+	 * @param heightPercent
+	 * @param frame Only valid during the call.
+	 */
+	protected abstract void onFrame(Object listener, int height, float heightPercent, Frame<V> frame);
+
+	/**
+	 * Calls a per-row 'listener' back for one pinched row.
+	 * @param listener
+	 * @param view
+	 * @param height The row's new height.
+	 * @param heightPercent
+	 */
+	protected abstract void onItem(Object listener, V view, int height, float heightPercent);
+}
@@ -0,0 +1,197 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * The discrete heights that pinchable rows settle at, from most collapsed to most expanded,
+ * each with the snap threshold that captures a release near it.
+ *
+ * @author jmhend
+ *
+ */
+public class PinchLevels {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Fraction of the gap to a neighbouring level within which a release snaps to a level,
+	 * whatever the pinch direction.
+	 */
+	public static final float DEFAULT_SNAP_THRESHOLD = 0.15f;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private int[] mHeights;
+	private float[] mThresholds;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * Two levels, collapsed and expanded.
+	 * @param collapsedHeight
+	 * @param expandedHeight
+	 */
+	public PinchLevels(int collapsedHeight, int expandedHeight) {
+		set(new int[] { collapsedHeight, expandedHeight }, new float[] { DEFAULT_SNAP_THRESHOLD, DEFAULT_SNAP_THRESHOLD });
+	}
+
+////=========================================================================================
+//// Levels
+////=========================================================================================
+
+	/**
+	 * @param heights Level heights, non-negative and strictly ascending. At least two.
+	 * @param thresholds Snap threshold of each level, in (0, 0.5].
+	 * @throws IllegalArgumentException if either array breaks those constraints.
+	 */
+	public void set(int[] heights, float[] thresholds) {
+		if (heights.length < 2 || thresholds.length != heights.length) {
+			throw new IllegalArgumentException("PinchLevels needs at least two heights, each with a snap threshold!");
+		}
+		if (heights[0] < 0) {
+			throw new IllegalArgumentException("PinchLevels heights can't be negative!");
+		}
+		for (int i = 1; i < heights.length; i++) {
+			if (heights[i] <= heights[i - 1]) {
+				throw new IllegalArgumentException("PinchLevels heights must be strictly ascending!");
+			}
+		}
+		for (int i = 0; i < thresholds.length; i++) {
+			// Written to reject NaN too.
+			if (!(thresholds[i] > 0.0f && thresholds[i] <= 0.5f)) {
+				throw new IllegalArgumentException("PinchLevels snap thresholds must be in (0, 0.5]!");
+			}
+		}
+		mHeights = heights.clone();
+		mThresholds = thresholds.clone();
+	}
+
+	/**
+	 * @return The number of levels.
+	 */
+	public int getCount() {
+		return mHeights.length;
+	}
+
+	/**
+	 * @param level
+	 * @return The row height at 'level'.
+	 */
+	public int getHeight(int level) {
+		return mHeights[level];
+	}
+
+	/**
+	 * @return The most collapsed height.
+	 */
+	public int getMinHeight() {
+		return mHeights[0];
+	}
+
+	/**
+	 * @return The most expanded height.
+	 */
+	public int getMaxHeight() {
+		return mHeights[mHeights.length - 1];
+	}
+
+	/**
+	 * Replaces the most collapsed height.
+	 * @param height
+	 * @throws IllegalArgumentException if 'height' is negative or not below the next level.
+	 */
+	public void setMinHeight(int height) {
+		if (height < 0 || height >= mHeights[1]) {
+			throw new IllegalArgumentException("PinchLevels min height must be non-negative and below the next level!");
+		}
+		mHeights[0] = height;
+	}
+
+	/**
+	 * Replaces the most expanded height.
+	 * @param height
+	 * @throws IllegalArgumentException if 'height' isn't above the previous level.
+	 */
+	public void setMaxHeight(int height) {
+		if (height <= mHeights[mHeights.length - 2]) {
+			throw new IllegalArgumentException("PinchLevels max height must be above the previous level!");
+		}
+		mHeights[mHeights.length - 1] = height;
+	}
+
+	/**
+	 * @param height
+	 * @return 'height' clamped to [getMinHeight(), getMaxHeight()].
+	 */
+	public int clamp(int height) {
+		return Math.max(getMinHeight(), Math.min(height, getMaxHeight()));
+	}
+
+	/**
+	 * @param height
+	 * @return The level whose height is exactly 'height', or -1 if it's between levels.
+	 */
+	public int getLevel(int height) {
+		for (int i = 0; i < mHeights.length; i++) {
+			if (mHeights[i] == height) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param height
+	 * @return The highest level at or below 'height', clamped to the valid levels.
+	 */
+	public int getLevelBelow(int height) {
+		int level = 0;
+		while (level < mHeights.length - 1 && mHeights[level + 1] <= height) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * @param height
+	 * @param expanding
+	 * @return The next level past 'height' in the pinch direction.
+	 */
+	public int getNextLevel(int height, boolean expanding) {
+		final int below = getLevelBelow(height);
+		if (expanding) {
+			return Math.min(below + 1, mHeights.length - 1);
+		}
+		return mHeights[below] == height ? Math.max(below - 1, 0) : below;
+	}
+
+	/**
+	 * Snaps to a level that 'height' is within the snap threshold of;
+	 * otherwise to the neighbouring level in the pinch direction.
+	 * @param height
+	 * @param expanding
+	 * @return The level a release at 'height' settles at.
+	 */
+	public int getSnapLevel(int height, boolean expanding) {
+		if (height <= getMinHeight()) {
+			return 0;
+		}
+		if (height >= getMaxHeight()) {
+			return mHeights.length - 1;
+		}
+		final int below = getLevelBelow(height);
+		final int above = below + 1;
+		final float fraction = ((float) (height - mHeights[below])) / (mHeights[above] - mHeights[below]);
+		if (fraction < mThresholds[below]) {
+			return below;
+		}
+		if (fraction > 1.0f - mThresholds[above]) {
+			return above;
+		}
+		return expanding ? above : below;
+	}
+}
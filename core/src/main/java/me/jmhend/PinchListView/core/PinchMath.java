@@ -0,0 +1,197 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * The maths behind a pinch: how the span scales the row height, where a released 
+ * pinch settles and how long it takes to get there.
+ *
+ * @author jmhend
+ *
+ */
+public final class PinchMath {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Duration of a full expand/collapse pinch animation.
+	 */
+	public static final long ANIMATE_DURATION_MILLIS = 200;
+
+	/**
+	 * Shortest settle animation after a flick.
+	 */
+	public static final long MIN_SETTLE_DURATION_MILLIS = 48;
+
+	/**
+	 * How much more the cell height scales than the pinch span.
+	 */
+	public static final float SCALE_AMPLIFICATION = 8;
+
+	/**
+	 * A release faster than this many full pinch distances per second is a flick,
+	 * which settles in the direction of the flick.
+	 */
+	public static final float FLICK_DISTANCES_PER_SECOND = 2.0f;
+
+	/**
+	 * How far ahead, in seconds, the release velocity is projected when choosing a target.
+	 */
+	public static final float VELOCITY_PROJECTION_SECONDS = 0.1f;
+
+	/**
+	 * Furthest ahead, in milliseconds, touch prediction extrapolates the span.
+	 */
+	public static final long MAX_PREDICTION_MILLIS = 24;
+
+	private PinchMath() { }
+
+////=========================================================================================
+//// Pinching
+////=========================================================================================
+
+	/**
+	 * @param scaleFactor The span's scale factor since the last scale event.
+	 * @return The factor the cell height scales by.
+	 */
+	public static float amplifyScale(float scaleFactor) {
+		return 1 + ((scaleFactor - 1) * SCALE_AMPLIFICATION);
+	}
+
+	/**
+	 * @param height
+	 * @param scaleFactor The span's scale factor since the last scale event.
+	 * @param minHeight
+	 * @param maxHeight
+	 * @return 'height' scaled by the amplified 'scaleFactor', changed by at least a pixel, 
+	 * and kept within [minHeight, maxHeight].
+	 */
+	public static int scaleHeight(int height, float scaleFactor, int minHeight, int maxHeight) {
+		final float scalingFactor = amplifyScale(scaleFactor);
+		int newHeight = (int) (height * scalingFactor);
+
+		// Make sure the height changes, even if the scale is too small to affect integer changes.
+		if (newHeight == height) {
+			if (scalingFactor > 1.0f) {
+				newHeight++;
+			} else {
+				newHeight--;
+			}
+		}
+		return clamp(newHeight, minHeight, maxHeight);
+	}
+
+	/**
+	 * @param span The span at its latest sample.
+	 * @param spanVelocity The span's velocity, in pixels per second.
+	 * @param leadMillis How far past the latest sample to predict, capped at MAX_PREDICTION_MILLIS.
+	 * @return The factor the span is expected to have scaled by 'leadMillis' from now,
+	 * or 1 if there's nothing to predict.
+	 */
+	public static float predictScale(float span, float spanVelocity, long leadMillis) {
+		if (span <= 0 || spanVelocity == 0 || leadMillis <= 0) {
+			return 1.0f;
+		}
+		final long lead = Math.min(leadMillis, MAX_PREDICTION_MILLIS);
+		final float predictedSpan = span + spanVelocity * lead / 1000.0f;
+		return predictedSpan > 0 ? predictedSpan / span : 1.0f;
+	}
+
+	/**
+	 * @return 'height' kept within [minHeight, maxHeight].
+	 */
+	public static int clamp(int height, int minHeight, int maxHeight) {
+		if (height > maxHeight) {
+			return maxHeight;
+		}
+		if (height < minHeight) {
+			return minHeight;
+		}
+		return height;
+	}
+
+	/**
+	 * @param pinchHeight The height of rows with the reference expanded height.
+	 * @param rowExpandedHeight The row's own expanded height.
+	 * @param collapsedHeight
+	 * @param expandedHeight The reference expanded height.
+	 * @return The row's height, scaled between 'collapsedHeight' and its own expanded height
+	 * by the same fraction as 'pinchHeight' is between 'collapsedHeight' and 'expandedHeight'.
+	 */
+	public static int rowHeight(int pinchHeight, int rowExpandedHeight, int collapsedHeight, int expandedHeight) {
+		if (rowExpandedHeight == expandedHeight || expandedHeight == collapsedHeight) {
+			return pinchHeight;
+		}
+		return collapsedHeight + Math.round(((float) (rowExpandedHeight - collapsedHeight)) 
+				* (pinchHeight - collapsedHeight) / (expandedHeight - collapsedHeight));
+	}
+
+	/**
+	 * @return How far 'height' is between 'min' (0) and 'max' (1).
+	 */
+	public static float heightPercentage(int height, int max, int min) {
+		return ((float) height - min) / ((float) (max - min));
+	}
+
+////=========================================================================================
+//// Settling
+////=========================================================================================
+
+	/**
+	 * @param height The cell height at release.
+	 * @param span The pinch span at release.
+	 * @param spanVelocity The span's velocity, in pixels per second, at release.
+	 * @return The rate, in pixels per second, at which the cell height was changing.
+	 */
+	public static float heightVelocity(int height, float span, float spanVelocity) {
+		if (span <= 0) {
+			return 0.0f;
+		}
+		return height * SCALE_AMPLIFICATION * spanVelocity / span;
+	}
+
+	/**
+	 * A flick goes to the next level in its direction. Otherwise the height a tenth 
+	 * of a second ahead snaps to a level, in the pinch direction unless it's near one.
+	 * @param levels
+	 * @param height The cell height at release.
+	 * @param velocity The cell height velocity, in pixels per second, at release.
+	 * @param expanding The pinch direction at release.
+	 * @return The cell height to settle at.
+	 */
+	public static int targetHeight(PinchLevels levels, int height, float velocity, boolean expanding) {
+		final int pinchDistance = levels.getMaxHeight() - levels.getMinHeight();
+		if (Math.abs(velocity) >= pinchDistance * FLICK_DISTANCES_PER_SECOND) {
+			return levels.getHeight(levels.getNextLevel(height, velocity > 0));
+		}
+		final int projectedHeight = height + (int) (velocity * VELOCITY_PROJECTION_SECONDS);
+		return levels.getHeight(levels.getSnapLevel(projectedHeight, expanding));
+	}
+
+	/**
+	 * @param pinchDistance The full distance between collapsed and expanded heights.
+	 * @return The duration of an animation from 'height' to 'targetHeight', 
+	 * proportional to the distance covered.
+	 */
+	public static long animationDuration(int height, int targetHeight, int pinchDistance) {
+		final int distance = Math.abs(targetHeight - height);
+		final float percent = ((float) distance) / ((float) pinchDistance);
+		return Math.max((long) (percent * ANIMATE_DURATION_MILLIS), 1L);
+	}
+
+	/**
+	 * A settle moving with the release velocity decelerates uniformly to the target, 
+	 * taking 2 * distance / velocity. Otherwise it takes the regular animation duration.
+	 * @param pinchDistance The full distance between collapsed and expanded heights.
+	 * @return The duration of the settle animation.
+	 */
+	public static long settleDuration(int height, int targetHeight, float velocity, int pinchDistance) {
+		final long duration = animationDuration(height, targetHeight, pinchDistance);
+		final int distance = targetHeight - height;
+		if (distance == 0 || velocity == 0 || (distance > 0) != (velocity > 0)) {
+			return duration;
+		}
+		final long flingDuration = (long) (2000.0f * distance / velocity);
+		return Math.max(Math.min(flingDuration, duration), Math.min(MIN_SETTLE_DURATION_MILLIS, duration));
+	}
+}
@@ -0,0 +1,167 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Caches RowPinchability.isRowPinchable() answers, e.g. a PinchAdapter's, so hot paths don't call into the adapter.
+ *
+ * Positions are grouped into fixed-size blocks that are indexed lazily, the first time
+ * a position inside them is queried. A block is stored as a bitset, unless every row
+ * in it answers the same, in which case it shares a single constant block.
+ * Long runs of pinchable or non-pinchable rows therefore cost one reference per block.
+ *
+ * @author jmhend
+ *
+ */
+public class PinchabilityIndex {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int BLOCK_SHIFT = 10;
+	private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+	private static final int WORDS_PER_BLOCK = BLOCK_SIZE >> 6;
+
+	private static final long[] ALL_PINCHABLE = new long[WORDS_PER_BLOCK];
+	private static final long[] NONE_PINCHABLE = new long[WORDS_PER_BLOCK];
+	static {
+		for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+			ALL_PINCHABLE[i] = ~0L;
+		}
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private RowPinchability mAdapter;
+	private int mCount;
+	private long[][] mBlocks = new long[0][];
+
+////=========================================================================================
+//// Index
+////=========================================================================================
+
+	/**
+	 * Drops the whole index and starts answering for 'adapter', which has 'count' rows.
+	 * @param adapter
+	 * @param count
+	 */
+	public void reset(RowPinchability adapter, int count) {
+		mAdapter = adapter;
+		invalidateAll(count);
+	}
+
+	/**
+	 * Marks every row as unindexed, e.g. after the adapter's data set changed.
+	 * @param count The new number of rows.
+	 */
+	public void invalidateAll(int count) {
+		mCount = Math.max(count, 0);
+		final int blockCount = (mCount + BLOCK_MASK) >> BLOCK_SHIFT;
+		if (mBlocks.length != blockCount) {
+			mBlocks = new long[blockCount][];
+		} else {
+			for (int i = 0; i < blockCount; i++) {
+				mBlocks[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Marks the row at 'position' as unindexed, so it is asked for again on next access.
+	 * @param position
+	 */
+	public void invalidate(int position) {
+		if (position >= 0 && position < mCount) {
+			mBlocks[position >> BLOCK_SHIFT] = null;
+		}
+	}
+
+	/**
+	 * @return The number of rows being indexed.
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	/**
+	 * @param position
+	 * @return True if the row at 'position' is pinchable.
+	 */
+	public boolean isPinchable(int position) {
+		if (position < 0 || position >= mCount) {
+			return false;
+		}
+		long[] block = mBlocks[position >> BLOCK_SHIFT];
+		if (block == null) {
+			block = buildBlock(position >> BLOCK_SHIFT);
+		}
+		final int bit = position & BLOCK_MASK;
+		return (block[bit >> 6] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Skips a uniform block that doesn't match in O(1), and otherwise scans a word at a time,
+	 * so walking the runs of a list costs one step per block and per run, once blocks are indexed.
+	 * @param position Where to start looking.
+	 * @param pinchable
+	 * @return The first position at or after 'position' whose pinchability is 'pinchable',
+	 * or getCount() if there's none.
+	 */
+	public int findNext(int position, boolean pinchable) {
+		position = Math.max(position, 0);
+		final long[] skip = pinchable ? NONE_PINCHABLE : ALL_PINCHABLE;
+		while (position < mCount) {
+			final int blockIndex = position >> BLOCK_SHIFT;
+			long[] block = mBlocks[blockIndex];
+			if (block == null) {
+				block = buildBlock(blockIndex);
+			}
+			final int blockStart = blockIndex << BLOCK_SHIFT;
+			if (block != skip) {
+				final int bit = position & BLOCK_MASK;
+				for (int word = bit >> 6; word < WORDS_PER_BLOCK; word++) {
+					long bits = pinchable ? block[word] : ~block[word];
+					if (word == bit >> 6) {
+						bits &= -1L << bit;
+					}
+					if (bits != 0) {
+						// Bits past 'mCount' may read as either; clamp to it.
+						return Math.min(blockStart + (word << 6) + Long.numberOfTrailingZeros(bits), mCount);
+					}
+				}
+			}
+			position = blockStart + BLOCK_SIZE;
+		}
+		return mCount;
+	}
+
+	/**
+	 * Asks the adapter about every row in block 'blockIndex'.
+	 * @param blockIndex
+	 * @return The indexed block.
+	 */
+	private long[] buildBlock(int blockIndex) {
+		final int start = blockIndex << BLOCK_SHIFT;
+		final int end = Math.min(start + BLOCK_SIZE, mCount);
+		long[] words = new long[WORDS_PER_BLOCK];
+		int pinchableCount = 0;
+		for (int position = start; position < end; position++) {
+			if (mAdapter.isRowPinchable(position)) {
+				final int bit = position & BLOCK_MASK;
+				words[bit >> 6] |= 1L << bit;
+				pinchableCount++;
+			}
+		}
+
+		// Uniform blocks share a constant; bits past 'mCount' are never read.
+		if (pinchableCount == 0) {
+			words = NONE_PINCHABLE;
+		} else if (pinchableCount == end - start) {
+			words = ALL_PINCHABLE;
+		}
+		mBlocks[blockIndex] = words;
+		return words;
+	}
+}
@@ -0,0 +1,27 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * A run of laid out rows, e.g. a list's visible children, with ascending tops.
+ *
+ * @author jmhend
+ *
+ */
+public interface RowGeometry {
+
+	/**
+	 * @return The number of rows.
+	 */
+	public int getRowCount();
+
+	/**
+	 * @param index In [0, getRowCount()).
+	 * @return The top of the row at 'index'. Tops never decrease with 'index'.
+	 */
+	public int getRowTop(int index);
+
+	/**
+	 * @param index In [0, getRowCount()).
+	 * @return The height of the row at 'index'.
+	 */
+	public int getRowHeight(int index);
+}
@@ -0,0 +1,315 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Maps between row positions and content offsets for a list whose pinchable rows
+ * scale with the current pinch height and whose other rows have fixed heights.
+ *
+ * Fenwick trees hold, per range of rows, the number of pinchable rows, the summed
+ * heights of the non-pinchable rows, and how far the pinchable rows' own expanded heights
+ * differ from the reference expanded height. A row range's height is then
+ * pinchableCount * pinchHeight + fixedHeight + pinchFraction * expandedDifference 
+ * + rowCount * dividerHeight, so changing the pinch height or divider height is O(1), 
+ * and offset lookups in either direction are O(log n). Offsets are exact when every
+ * pinchable row shares the reference expanded height, and otherwise within the per-row rounding.
+ *
+ * The trees are built in O(n) on the first query after an invalidation, or ahead of it,
+ * a slice at a time, with build().
+ *
+ * @author jmhend
+ *
+ */
+public class RowOffsetIndex {
+
+////=========================================================================================
+//// RowSource
+////=========================================================================================
+
+	/**
+	 * Supplies the rows being indexed.
+	 * @author jmhend
+	 *
+	 */
+	public static interface RowSource {
+
+		/**
+		 * @return The number of rows.
+		 */
+		public int getRowCount();
+
+		/**
+		 * @param position
+		 * @return True if the row at 'position' takes the pinch height.
+		 */
+		public boolean isRowPinchable(int position);
+
+		/**
+		 * @param position
+		 * @return The height of the row at 'position' when fully expanded.
+		 */
+		public int getExpandedRowHeight(int position);
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final RowSource mSource;
+
+	private int mCount;
+	private int[] mPinchableTree = new int[1];
+	private int[] mFixedTree = new int[1];
+	private int[] mExtraTree = new int[1];
+	private int mPinchHeight;
+	private int mCollapsedHeight;
+	private int mExpandedHeight = 1;
+	private int mDividerHeight;
+	private boolean mDirty = true;
+	private int mBuilt;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param source
+	 */
+	public RowOffsetIndex(RowSource source) {
+		mSource = source;
+	}
+
+////=========================================================================================
+//// Parameters
+////=========================================================================================
+
+	/**
+	 * @param pinchHeight The height every pinchable row currently has.
+	 */
+	public void setPinchHeight(int pinchHeight) {
+		mPinchHeight = pinchHeight;
+	}
+
+	/**
+	 * Sets the reference heights that the pinch height scales between.
+	 * A pinchable row with its own expanded height scales between 'collapsedHeight' 
+	 * and that height by the same fraction.
+	 * @param collapsedHeight
+	 * @param expandedHeight
+	 */
+	public void setPinchRange(int collapsedHeight, int expandedHeight) {
+		if (expandedHeight != mExpandedHeight) {
+			mDirty = true;
+		}
+		mCollapsedHeight = collapsedHeight;
+		mExpandedHeight = expandedHeight;
+	}
+	
+	/**
+	 * @param dividerHeight The height of the divider below each row.
+	 */
+	public void setDividerHeight(int dividerHeight) {
+		mDividerHeight = dividerHeight;
+	}
+
+	/**
+	 * Drops the index; it is rebuilt from the RowSource on next access.
+	 */
+	public void invalidate() {
+		mDirty = true;
+	}
+
+	/**
+	 * Re-reads the row at 'position' from the RowSource, if it's been built.
+	 * @param position
+	 */
+	public void invalidateRow(int position) {
+		if (mDirty || position < 0 || position >= mBuilt) {
+			return;
+		}
+		final boolean pinchable = mSource.isRowPinchable(position);
+		final int height = mSource.getExpandedRowHeight(position);
+		final int pinchableDelta = (pinchable ? 1 : 0) - rangeSum(mPinchableTree, position, position + 1);
+		final int fixedDelta = (pinchable ? 0 : height) - rangeSum(mFixedTree, position, position + 1);
+		final int extraDelta = (pinchable ? height - mExpandedHeight : 0) - rangeSum(mExtraTree, position, position + 1);
+		if (pinchableDelta != 0) {
+			add(mPinchableTree, position, pinchableDelta);
+		}
+		if (fixedDelta != 0) {
+			add(mFixedTree, position, fixedDelta);
+		}
+		if (extraDelta != 0) {
+			add(mExtraTree, position, extraDelta);
+		}
+	}
+
+////=========================================================================================
+//// Queries
+////=========================================================================================
+
+	/**
+	 * @return The number of rows indexed.
+	 */
+	public int getCount() {
+		ensureBuilt();
+		return mCount;
+	}
+
+	/**
+	 * @param position
+	 * @return The content offset of the top of the row at 'position'.
+	 * 'position' may equal the row count, giving the total content height.
+	 */
+	public int getOffset(int position) {
+		ensureBuilt();
+		position = Math.max(0, Math.min(position, mCount));
+		return prefixSum(mPinchableTree, position) * mPinchHeight
+				+ prefixSum(mFixedTree, position)
+				+ scaleExtra(prefixSum(mExtraTree, position))
+				+ position * mDividerHeight;
+	}
+
+	/**
+	 * @return The height of all rows and their dividers.
+	 */
+	public int getTotalHeight() {
+		return getOffset(getCount());
+	}
+
+	/**
+	 * @param offset
+	 * @return The position of the row covering content offset 'offset', clamped to valid rows,
+	 * or -1 if there are no rows.
+	 */
+	public int getPositionAtOffset(int offset) {
+		ensureBuilt();
+		if (mCount == 0) {
+			return -1;
+		}
+		int position = 0;
+		int remaining = offset;
+		for (int step = Integer.highestOneBit(mCount); step > 0; step >>= 1) {
+			final int next = position + step;
+			if (next > mCount) {
+				continue;
+			}
+			final int height = mPinchableTree[next] * mPinchHeight + mFixedTree[next] 
+					+ scaleExtra(mExtraTree[next]) + step * mDividerHeight;
+			if (height <= remaining) {
+				position = next;
+				remaining -= height;
+			}
+		}
+		return Math.min(position, mCount - 1);
+	}
+
+	/**
+	 * @param extra Expanded height beyond the reference, summed over pinchable rows.
+	 * @return How much of 'extra' is showing at the current pinch height.
+	 */
+	private int scaleExtra(int extra) {
+		if (extra == 0 || mExpandedHeight == mCollapsedHeight) {
+			return 0;
+		}
+		return Math.round(((float) extra) * (mPinchHeight - mCollapsedHeight) / (mExpandedHeight - mCollapsedHeight));
+	}
+
+////=========================================================================================
+//// Fenwick trees
+////=========================================================================================
+
+	/**
+	 * @return True if every row is built, so queries won't read the RowSource.
+	 */
+	public boolean isBuilt() {
+		return !mDirty && mBuilt == mCount;
+	}
+
+	/**
+	 * Builds up to 'maxRows' more rows, restarting if the index was invalidated,
+	 * so a large index can be built a slice per frame instead of all at once on first query.
+	 * @param maxRows
+	 * @return True if every row is built.
+	 */
+	public boolean build(int maxRows) {
+		if (mDirty) {
+			startBuild();
+		}
+		final int end = (int) Math.min((long) mBuilt + maxRows, mCount);
+		for (int i = mBuilt + 1; i <= end; i++) {
+			final int height = mSource.getExpandedRowHeight(i - 1);
+			if (mSource.isRowPinchable(i - 1)) {
+				mPinchableTree[i]++;
+				mExtraTree[i] += height - mExpandedHeight;
+			} else {
+				mFixedTree[i] += height;
+			}
+			final int parent = i + (i & -i);
+			if (parent <= mCount) {
+				mPinchableTree[parent] += mPinchableTree[i];
+				mFixedTree[parent] += mFixedTree[i];
+				mExtraTree[parent] += mExtraTree[i];
+			}
+		}
+		mBuilt = end;
+		return mBuilt == mCount;
+	}
+
+	/**
+	 * Finishes building the trees if the index was invalidated; O(n) in the rows left.
+	 */
+	private void ensureBuilt() {
+		if (!isBuilt()) {
+			build(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Clears the trees for the RowSource's current row count.
+	 */
+	private void startBuild() {
+		mDirty = false;
+		mBuilt = 0;
+		mCount = Math.max(mSource.getRowCount(), 0);
+		if (mPinchableTree.length != mCount + 1) {
+			mPinchableTree = new int[mCount + 1];
+			mFixedTree = new int[mCount + 1];
+			mExtraTree = new int[mCount + 1];
+		} else {
+			for (int i = 0; i <= mCount; i++) {
+				mPinchableTree[i] = 0;
+				mFixedTree[i] = 0;
+				mExtraTree[i] = 0;
+			}
+		}
+	}
+
+	/**
+	 * @return The sum of the first 'count' values in 'tree'.
+	 */
+	private static int prefixSum(int[] tree, int count) {
+		int sum = 0;
+		for (int i = count; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * @return The sum of values [start, end) in 'tree'.
+	 */
+	private static int rangeSum(int[] tree, int start, int end) {
+		return prefixSum(tree, end) - prefixSum(tree, start);
+	}
+
+	/**
+	 * Adds 'delta' to the value at 'position' in 'tree'.
+	 */
+	private void add(int[] tree, int position, int delta) {
+		for (int i = position + 1; i <= mCount; i += i & -i) {
+			tree[i] += delta;
+			// A node that isn't built yet carries 'delta' up to its parents once it is.
+			if (i > mBuilt) {
+				return;
+			}
+		}
+	}
+}
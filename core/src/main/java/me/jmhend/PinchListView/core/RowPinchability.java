@@ -0,0 +1,19 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * Says which rows respond to pinch gestures.
+ *
+ * @author jmhend
+ *
+ */
+public interface RowPinchability {
+
+	/**
+	 * True if the row at 'position' is pinchable.
+	 * i.e, it responds and animates to pinch events.
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public boolean isRowPinchable(int position);
+}
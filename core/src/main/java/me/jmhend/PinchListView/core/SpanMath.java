@@ -0,0 +1,99 @@
+package me.jmhend.PinchListView.core;
+
+/**
+ * The focal point and span of a set of touch points, as a scale gesture sees them.
+ * Reusable; computing never allocates.
+ *
+ * @author jmhend
+ *
+ */
+public final class SpanMath {
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private float mFocusX;
+	private float mFocusY;
+	private float mSpanX;
+	private float mSpanY;
+	private float mSpan;
+
+////=========================================================================================
+//// Span
+////=========================================================================================
+
+	/**
+	 * Computes the focal point and span of the first 'count' points, leaving out 'skipIndex'.
+	 * @param xs
+	 * @param ys
+	 * @param count
+	 * @param skipIndex Index of a point that's lifting, or -1.
+	 */
+	public void compute(float[] xs, float[] ys, int count, int skipIndex) {
+		// Determine focal point
+		float sumX = 0, sumY = 0;
+		for (int i = 0; i < count; i++) {
+			if (skipIndex == i) continue;
+			sumX += xs[i];
+			sumY += ys[i];
+		}
+		final int div = skipIndex >= 0 && skipIndex < count ? count - 1 : count;
+		final float focusX = sumX / div;
+		final float focusY = sumY / div;
+
+		// Determine average deviation from focal point
+		float devSumX = 0, devSumY = 0;
+		for (int i = 0; i < count; i++) {
+			if (skipIndex == i) continue;
+			devSumX += Math.abs(xs[i] - focusX);
+			devSumY += Math.abs(ys[i] - focusY);
+		}
+		final float devX = devSumX / div;
+		final float devY = devSumY / div;
+
+		// Span is the average distance between touch points through the focal point;
+		// i.e. the diameter of the circle with a radius of the average deviation from
+		// the focal point.
+		mFocusX = focusX;
+		mFocusY = focusY;
+		mSpanX = devX * 2;
+		mSpanY = devY * 2;
+		mSpan = (float) Math.sqrt(mSpanX * mSpanX + mSpanY * mSpanY);
+	}
+
+	/**
+	 * @return X coordinate of the focal point.
+	 */
+	public float getFocusX() {
+		return mFocusX;
+	}
+
+	/**
+	 * @return Y coordinate of the focal point.
+	 */
+	public float getFocusY() {
+		return mFocusY;
+	}
+
+	/**
+	 * @return X component of the span.
+	 */
+	public float getSpanX() {
+		return mSpanX;
+	}
+
+	/**
+	 * @return Y component of the span.
+	 */
+	public float getSpanY() {
+		return mSpanY;
+	}
+
+	/**
+	 * @return The span: the average distance between the points, through the focal point.
+	 */
+	public float getSpan() {
+		return mSpan;
+	}
+}
@@ -0,0 +1,113 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks which row AnchorResolver holds in place for a pinch focus.
+ *
+ * @author jmhend
+ *
+ */
+public class AnchorResolverTest {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int COLLAPSED_HEIGHT = 40;
+
+////=========================================================================================
+//// Rows
+////=========================================================================================
+
+	/**
+	 * Rows stacked from y = 0 with the given heights.
+	 * @author jmhend
+	 *
+	 */
+	private static class Rows implements RowGeometry {
+		private final int[] mTops;
+		private final int[] mHeights;
+
+		private Rows(int... heights) {
+			mHeights = heights;
+			mTops = new int[heights.length];
+			for (int i = 1; i < heights.length; i++) {
+				mTops[i] = mTops[i - 1] + heights[i - 1];
+			}
+		}
+
+		@Override
+		public int getRowCount() {
+			return mHeights.length;
+		}
+
+		@Override
+		public int getRowTop(int index) {
+			return mTops[index];
+		}
+
+		@Override
+		public int getRowHeight(int index) {
+			return mHeights[index];
+		}
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void anchorsOnCollapsedGroupCenter() {
+		// Tops: 0, 120, 240, 280, 320, 360, 400, 440, 560.
+		final Rows rows = new Rows(120, 120, 40, 40, 40, 40, 40, 120, 120);
+		assertEquals(4, AnchorResolver.findAnchor(rows, 300, COLLAPSED_HEIGHT, 50));
+		assertEquals(4, AnchorResolver.findAnchor(rows, 300, COLLAPSED_HEIGHT, 1000));
+	}
+
+	@Test
+	public void anchorsOnRowUnderFocusWithoutGroup() {
+		// Tops: 0, 120, 240, 360; bottom 480.
+		final Rows rows = new Rows(120, 120, 120, 120);
+		assertEquals(2, AnchorResolver.findAnchor(rows, 300, COLLAPSED_HEIGHT, 50));
+		assertEquals(2, AnchorResolver.findAnchor(rows, 240, COLLAPSED_HEIGHT, 50));
+		assertEquals(1, AnchorResolver.findAnchor(rows, 239, COLLAPSED_HEIGHT, 50));
+		assertEquals(0, AnchorResolver.findAnchor(rows, -10, COLLAPSED_HEIGHT, 50));
+		assertEquals(3, AnchorResolver.findAnchor(rows, 479, COLLAPSED_HEIGHT, 50));
+		assertEquals(-1, AnchorResolver.findAnchor(rows, 480, COLLAPSED_HEIGHT, 50));
+	}
+
+	@Test
+	public void groupOutsideVicinityIsIgnored() {
+		final Rows rows = new Rows(120, 120, 40, 40, 40, 40, 40, 120, 120);
+		assertEquals(8, AnchorResolver.findAnchor(rows, 600, COLLAPSED_HEIGHT, 50));
+		assertEquals(-1, AnchorResolver.findGroupCenter(rows, 600, COLLAPSED_HEIGHT, 50));
+	}
+
+	@Test
+	public void groupCenterPicksFirstGroup() {
+		// Tops: 0, 40, 80, 200, 240, 280. The second group is only partly in the vicinity of 260.
+		final Rows rows = new Rows(40, 40, 120, 40, 40, 40);
+		assertEquals(1, AnchorResolver.findGroupCenter(rows, 150, COLLAPSED_HEIGHT, 200));
+		assertEquals(5, AnchorResolver.findGroupCenter(rows, 260, COLLAPSED_HEIGHT, 30));
+	}
+
+	@Test
+	public void noRows() {
+		final Rows rows = new Rows();
+		assertEquals(-1, AnchorResolver.findAnchor(rows, 100, COLLAPSED_HEIGHT, 50));
+		assertEquals(0, AnchorResolver.findFirstRowBelow(rows, 100));
+	}
+
+	@Test
+	public void firstRowBelow() {
+		final Rows rows = new Rows(120, 120, 120, 120);
+		assertEquals(0, AnchorResolver.findFirstRowBelow(rows, -1));
+		assertEquals(1, AnchorResolver.findFirstRowBelow(rows, 0));
+		assertEquals(2, AnchorResolver.findFirstRowBelow(rows, 239));
+		assertEquals(3, AnchorResolver.findFirstRowBelow(rows, 240));
+		assertEquals(4, AnchorResolver.findFirstRowBelow(rows, 360));
+	}
+}
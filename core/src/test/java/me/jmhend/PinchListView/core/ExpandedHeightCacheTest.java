@@ -0,0 +1,136 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks ExpandedHeightCache against a HashMap, with removals from the middle of probe chains.
+ *
+ * @author jmhend
+ *
+ */
+public class ExpandedHeightCacheTest {
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private ExpandedHeightCache mCache;
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() {
+		mCache = new ExpandedHeightCache();
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void putGetRemove() {
+		assertEquals(-1, mCache.get(7, -1));
+		mCache.put(7, 300);
+		assertEquals(300, mCache.get(7, -1));
+		mCache.put(7, 310);
+		assertEquals(310, mCache.get(7, -1));
+		mCache.remove(7);
+		assertEquals(-1, mCache.get(7, -1));
+		mCache.remove(7);
+	}
+
+	@Test
+	public void emptyKeyIsNeverCached() {
+		mCache.put(Long.MIN_VALUE, 5);
+		assertEquals(-1, mCache.get(Long.MIN_VALUE, -1));
+	}
+
+	@Test
+	public void removeShiftsCollidingKeysBack() {
+		final long[] keys = findCollidingKeys(6, 63);
+
+		// One chain of six: removing each link in turn leaves the rest reachable.
+		for (int removed = 0; removed < keys.length; removed++) {
+			mCache.clear();
+			for (int i = 0; i < keys.length; i++) {
+				mCache.put(keys[i], 100 + i);
+			}
+			mCache.remove(keys[removed]);
+			for (int i = 0; i < keys.length; i++) {
+				assertEquals("removed " + removed + ", key " + i, i == removed ? -1 : 100 + i, mCache.get(keys[i], -1));
+			}
+		}
+	}
+
+	@Test
+	public void removeHandlesChainsWrappingTheTable() {
+		// Homed at the last slot, so the chain wraps around to slot 0.
+		final long[] wrapping = findCollidingKeys(3, 63);
+		final long[] homedAtZero = findCollidingKeys(2, 0);
+		mCache.put(wrapping[0], 1);
+		mCache.put(wrapping[1], 2);
+		mCache.put(homedAtZero[0], 3);
+		mCache.put(wrapping[2], 4);
+		mCache.put(homedAtZero[1], 5);
+		mCache.remove(wrapping[0]);
+		assertEquals(2, mCache.get(wrapping[1], -1));
+		assertEquals(3, mCache.get(homedAtZero[0], -1));
+		assertEquals(4, mCache.get(wrapping[2], -1));
+		assertEquals(5, mCache.get(homedAtZero[1], -1));
+		mCache.remove(homedAtZero[0]);
+		assertEquals(2, mCache.get(wrapping[1], -1));
+		assertEquals(4, mCache.get(wrapping[2], -1));
+		assertEquals(5, mCache.get(homedAtZero[1], -1));
+	}
+
+	@Test
+	public void matchesHashMapUnderChurn() {
+		final Map<Long, Integer> expected = new HashMap<Long, Integer>();
+		final Random random = new Random(42);
+		for (int i = 0; i < 50000; i++) {
+			final long key = random.nextInt(600);
+			if (random.nextInt(3) == 0) {
+				mCache.remove(key);
+				expected.remove(key);
+			} else {
+				final int height = random.nextInt(1000);
+				mCache.put(key, height);
+				expected.put(key, height);
+			}
+		}
+		for (long key = 0; key < 600; key++) {
+			final Integer height = expected.get(key);
+			assertEquals("key " + key, height == null ? -1 : height.intValue(), mCache.get(key, -1));
+		}
+	}
+
+////=========================================================================================
+//// Keys
+////=========================================================================================
+
+	/**
+	 * @param count
+	 * @param slot
+	 * @return 'count' keys that all hash to 'slot' of the cache's initial 64-slot table.
+	 */
+	private static long[] findCollidingKeys(int count, int slot) {
+		final long[] keys = new long[count];
+		int found = 0;
+		for (long key = 0; found < count; key++) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			if (((int) (h ^ (h >>> 32)) & 63) == slot) {
+				keys[found++] = key;
+			}
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,139 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Checks that GestureTrace survives writeTo() and readFrom() unchanged.
+ *
+ * @author jmhend
+ *
+ */
+public class GestureTraceTest {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int ACTION_DOWN = 0;
+	private static final int ACTION_UP = 1;
+	private static final int ACTION_MOVE = 2;
+	private static final int ACTION_POINTER_2_DOWN = 5 | (1 << 8);
+	private static final int ACTION_POINTER_2_UP = 6 | (1 << 8);
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void roundTripsPinch() throws IOException {
+		final GestureTrace trace = new GestureTrace();
+		final long down = 123456789L;
+		addEvent(trace, ACTION_DOWN, down, new int[] { 0 }, new long[] { down }, 540, 860, 0);
+		addEvent(trace, ACTION_POINTER_2_DOWN, down, new int[] { 0, 1 }, new long[] { down + 8 }, 540, 860, 200);
+
+		// Batched samples: history first, the current sample last.
+		addEvent(trace, ACTION_MOVE, down, new int[] { 0, 1 }, new long[] { down + 16, down + 20, down + 24 }, 540.5f, 850, 230);
+		addEvent(trace, ACTION_MOVE, down, new int[] { 0, 1 }, new long[] { down + 32, down + 40 }, -3.25f, 840, 260);
+		addEvent(trace, ACTION_POINTER_2_UP, down, new int[] { 0, 1 }, new long[] { down + 48 }, 540, 840, 260);
+		addEvent(trace, ACTION_UP, down, new int[] { 0 }, new long[] { down + 56 }, 540, 840, 0);
+
+		assertTraceEquals(trace, roundTrip(trace));
+	}
+
+	@Test
+	public void roundTripsNegativeTimeDeltas() throws IOException {
+		final GestureTrace trace = new GestureTrace();
+
+		// Samples going back in time, across and within events, and a down time after the first sample.
+		addEvent(trace, ACTION_DOWN, 5000, new int[] { 3 }, new long[] { 4000 }, 1, 2, 0);
+		addEvent(trace, ACTION_MOVE, 5000, new int[] { 3 }, new long[] { 3990, 3980, 4100 }, 1, 2, 0);
+		addEvent(trace, ACTION_MOVE, -20, new int[] { 3 }, new long[] { -50 }, 1, 2, 0);
+		addEvent(trace, ACTION_UP, Long.MAX_VALUE / 4, new int[] { 3 }, new long[] { Long.MAX_VALUE / 2 }, 1, 2, 0);
+
+		assertTraceEquals(trace, roundTrip(trace));
+	}
+
+	@Test
+	public void roundTripsManyPointersAndLargeIds() throws IOException {
+		final GestureTrace trace = new GestureTrace();
+		final int[] ids = { 0, 1, 7, 300, 70000 };
+		for (int i = 0; i < 200; i++) {
+			addEvent(trace, ACTION_MOVE, 10, ids, new long[] { 10 + i * 3, 11 + i * 3 }, i, -i, i * 0.5f);
+		}
+		assertTraceEquals(trace, roundTrip(trace));
+	}
+
+	@Test
+	public void roundTripsEmptyTrace() throws IOException {
+		assertEquals(0, roundTrip(new GestureTrace()).getEventCount());
+	}
+
+	@Test
+	public void rejectsOtherData() {
+		try {
+			GestureTrace.readFrom(new ByteArrayInputStream(new byte[] { 'P', 'K', 3, 4, 1, 0 }));
+			fail("Read a trace from a zip header");
+		} catch (IOException expected) {
+			// Not a trace.
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEventWithoutSamples() {
+		new GestureTrace().addEvent(ACTION_MOVE, 0, 1, 0);
+	}
+
+////=========================================================================================
+//// Traces
+////=========================================================================================
+
+	/**
+	 * Adds an event whose pointer 'i' sits at ('x', 'y' + i * 'gap') plus the sample index.
+	 */
+	private static void addEvent(GestureTrace trace, int action, long downTime, int[] ids, long[] times, float x, float y, float gap) {
+		final int event = trace.addEvent(action, downTime, ids.length, times.length);
+		for (int p = 0; p < ids.length; p++) {
+			trace.setPointerId(event, p, ids[p]);
+		}
+		for (int s = 0; s < times.length; s++) {
+			trace.setSampleTime(event, s, times[s]);
+			for (int p = 0; p < ids.length; p++) {
+				trace.setCoords(event, s, p, x + s, y + p * gap + s);
+			}
+		}
+	}
+
+	private static GestureTrace roundTrip(GestureTrace trace) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		trace.writeTo(out);
+		return GestureTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private static void assertTraceEquals(GestureTrace expected, GestureTrace actual) {
+		assertEquals(expected.getEventCount(), actual.getEventCount());
+		for (int e = 0; e < expected.getEventCount(); e++) {
+			final String event = "event " + e;
+			assertEquals(event, expected.getAction(e), actual.getAction(e));
+			assertEquals(event, expected.getDownTime(e), actual.getDownTime(e));
+			assertEquals(event, expected.getPointerCount(e), actual.getPointerCount(e));
+			assertEquals(event, expected.getSampleCount(e), actual.getSampleCount(e));
+			for (int p = 0; p < expected.getPointerCount(e); p++) {
+				assertEquals(event, expected.getPointerId(e, p), actual.getPointerId(e, p));
+			}
+			for (int s = 0; s < expected.getSampleCount(e); s++) {
+				assertEquals(event, expected.getSampleTime(e, s), actual.getSampleTime(e, s));
+				for (int p = 0; p < expected.getPointerCount(e); p++) {
+					assertEquals(event, expected.getX(e, s, p), actual.getX(e, s, p), 0);
+					assertEquals(event, expected.getY(e, s, p), actual.getY(e, s, p), 0);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks which listeners PinchDispatcher calls, and with what.
+ *
+ * @author jmhend
+ *
+ */
+public class PinchDispatcherTest {
+
+////=========================================================================================
+//// Dispatcher
+////=========================================================================================
+
+	/**
+	 * Records each call as "listener:view:height", or "listener:frame:count".
+	 * @author jmhend
+	 *
+	 */
+	private static class RecordingDispatcher extends PinchDispatcher<String> {
+		private final List<String> mCalls = new ArrayList<String>();
+		private Object mRemoveOnCall;
+
+		@Override
+		protected void onFrame(Object listener, int height, float heightPercent, Frame<String> frame) {
+			mCalls.add(listener + ":frame:" + frame.getCount());
+			removeIfAsked();
+		}
+
+		@Override
+		protected void onItem(Object listener, String view, int height, float heightPercent) {
+			mCalls.add(listener + ":" + view + ":" + height);
+			removeIfAsked();
+		}
+
+		private void removeIfAsked() {
+			if (mRemoveOnCall != null) {
+				removeListener(mRemoveOnCall);
+				mRemoveOnCall = null;
+			}
+		}
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private RecordingDispatcher mDispatcher;
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() {
+		mDispatcher = new RecordingDispatcher();
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void callsFrameAndItemListeners() {
+		mDispatcher.addListener("items", true, 0, 0);
+		mDispatcher.addListener("frames", false, 0, 0);
+		mDispatcher.add("a", 3, 50);
+		mDispatcher.add("b", 4, 60);
+		mDispatcher.dispatch(50, 0.5f, 0);
+		assertEquals("[items:a:50, items:b:60, frames:frame:2]", mDispatcher.mCalls.toString());
+		assertEquals(0, mDispatcher.getFrame().getCount());
+	}
+
+	@Test
+	public void emptyFrameIsNotDispatched() {
+		mDispatcher.addListener("frames", false, 0, 0);
+		mDispatcher.dispatch(50, 0.5f, 0);
+		assertTrue(mDispatcher.mCalls.isEmpty());
+	}
+
+	@Test
+	public void framesAreThrottledPerListener() {
+		mDispatcher.addListener("every", false, 0, 0);
+		mDispatcher.addListener("tenths", false, 0.1f, 0);
+		final float[] percents = { 0.51f, 0.55f, 0.61f, 0.62f };
+		for (float percent : percents) {
+			mDispatcher.add("a", 0, 1);
+			mDispatcher.dispatch(1, percent, 0);
+		}
+		assertEquals("[every:frame:1, tenths:frame:1, every:frame:1, every:frame:1, tenths:frame:1, every:frame:1]",
+				mDispatcher.mCalls.toString());
+	}
+
+	@Test
+	public void frameGrowsPastInitialCapacity() {
+		mDispatcher.addListener("frames", false, 0, 0);
+		for (int i = 0; i < 100; i++) {
+			mDispatcher.add("row" + i, i, i * 2);
+		}
+		final PinchDispatcher.Frame<String> frame = mDispatcher.getFrame();
+		assertEquals(100, frame.getCount());
+		assertEquals("row99", frame.getView(99));
+		assertEquals(99, frame.getPosition(99));
+		assertEquals(198, frame.getHeight(99));
+	}
+
+	@Test
+	public void removeDuringDispatchTakesEffectNextFrame() {
+		mDispatcher.addListener("first", false, 0, 0);
+		mDispatcher.addListener("second", false, 0, 0);
+		mDispatcher.mRemoveOnCall = "second";
+		mDispatcher.add("a", 0, 1);
+		mDispatcher.dispatch(1, 0.5f, 0);
+		assertEquals("[first:frame:1, second:frame:1]", mDispatcher.mCalls.toString());
+
+		mDispatcher.mCalls.clear();
+		mDispatcher.add("a", 0, 1);
+		mDispatcher.dispatch(1, 0.6f, 0);
+		assertEquals("[first:frame:1]", mDispatcher.mCalls.toString());
+	}
+
+	@Test
+	public void removeUnknownListener() {
+		mDispatcher.addListener("frames", false, 0, 0);
+		mDispatcher.removeListener("other");
+		assertTrue(mDispatcher.hasListeners());
+		mDispatcher.removeListener("frames");
+		assertFalse(mDispatcher.hasListeners());
+	}
+}
@@ -0,0 +1,121 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks how PinchLevels picks the level a release settles at, and what it accepts.
+ *
+ * @author jmhend
+ *
+ */
+public class PinchLevelsTest {
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private PinchLevels mLevels;
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() {
+		// Gaps of 100 and 200, so the default threshold is 15 and 30 pixels either side.
+		mLevels = new PinchLevels(100, 400);
+		mLevels.set(new int[] { 100, 200, 400 }, new float[] { 0.15f, 0.15f, 0.15f });
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void snapClampsOutsideRange() {
+		assertEquals(0, mLevels.getSnapLevel(50, true));
+		assertEquals(0, mLevels.getSnapLevel(100, true));
+		assertEquals(2, mLevels.getSnapLevel(400, false));
+		assertEquals(2, mLevels.getSnapLevel(900, false));
+	}
+
+	@Test
+	public void snapWithinThresholdIgnoresDirection() {
+		assertEquals(0, mLevels.getSnapLevel(114, true));
+		assertEquals(1, mLevels.getSnapLevel(186, false));
+		assertEquals(1, mLevels.getSnapLevel(229, true));
+		assertEquals(2, mLevels.getSnapLevel(371, false));
+	}
+
+	@Test
+	public void snapBetweenThresholdsFollowsDirection() {
+		assertEquals(1, mLevels.getSnapLevel(116, true));
+		assertEquals(0, mLevels.getSnapLevel(184, false));
+		assertEquals(2, mLevels.getSnapLevel(232, true));
+		assertEquals(1, mLevels.getSnapLevel(368, false));
+	}
+
+	@Test
+	public void snapAtLevelStays() {
+		assertEquals(1, mLevels.getSnapLevel(200, true));
+		assertEquals(1, mLevels.getSnapLevel(200, false));
+	}
+
+	@Test
+	public void snapUsesEachLevelsThreshold() {
+		mLevels.set(new int[] { 100, 200, 400 }, new float[] { 0.5f, 0.05f, 0.15f });
+		assertEquals(0, mLevels.getSnapLevel(149, true));
+		assertEquals(1, mLevels.getSnapLevel(196, false));
+		assertEquals(0, mLevels.getSnapLevel(194, false));
+	}
+
+	@Test
+	public void nextLevel() {
+		assertEquals(1, mLevels.getNextLevel(100, true));
+		assertEquals(0, mLevels.getNextLevel(100, false));
+		assertEquals(2, mLevels.getNextLevel(200, true));
+		assertEquals(0, mLevels.getNextLevel(200, false));
+		assertEquals(1, mLevels.getNextLevel(250, false));
+		assertEquals(2, mLevels.getNextLevel(400, true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnorderedHeights() {
+		mLevels.set(new int[] { 100, 100, 400 }, new float[] { 0.15f, 0.15f, 0.15f });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativeHeights() {
+		mLevels.set(new int[] { -1, 400 }, new float[] { 0.15f, 0.15f });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsThresholdsOutsideRange() {
+		mLevels.set(new int[] { 100, 400 }, new float[] { 0.15f, 0.6f });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNaNThresholds() {
+		mLevels.set(new int[] { 100, 400 }, new float[] { Float.NaN, 0.15f });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMinHeightPastNextLevel() {
+		mLevels.setMinHeight(200);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMaxHeightBelowPreviousLevel() {
+		mLevels.setMaxHeight(150);
+	}
+
+	@Test
+	public void clamp() {
+		assertEquals(100, mLevels.clamp(20));
+		assertEquals(250, mLevels.clamp(250));
+		assertEquals(400, mLevels.clamp(1000));
+	}
+}
@@ -0,0 +1,74 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the pinch height scaling and span prediction in PinchMath.
+ *
+ * @author jmhend
+ *
+ */
+public class PinchMathTest {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final float DELTA = 1e-5f;
+
+////=========================================================================================
+//// scaleHeight
+////=========================================================================================
+
+	@Test
+	public void scaleHeightAmplifiesScale() {
+		// A span change of 1/16 moves the height by half.
+		assertEquals(150, PinchMath.scaleHeight(100, 1.0625f, 10, 400));
+		assertEquals(50, PinchMath.scaleHeight(100, 0.9375f, 10, 400));
+	}
+
+	@Test
+	public void scaleHeightAlwaysMovesAPixel() {
+		assertEquals(101, PinchMath.scaleHeight(100, 1.0001f, 10, 400));
+		assertEquals(99, PinchMath.scaleHeight(100, 0.9999f, 10, 400));
+	}
+
+	@Test
+	public void scaleHeightClamps() {
+		assertEquals(400, PinchMath.scaleHeight(390, 1.125f, 10, 400));
+		assertEquals(40, PinchMath.scaleHeight(50, 0.5f, 40, 400));
+		assertEquals(40, PinchMath.scaleHeight(40, 0.9999f, 40, 400));
+		assertEquals(400, PinchMath.scaleHeight(400, 1.0001f, 40, 400));
+	}
+
+////=========================================================================================
+//// predictScale
+////=========================================================================================
+
+	@Test
+	public void predictScaleExtrapolatesSpan() {
+		assertEquals(1.05f, PinchMath.predictScale(200, 1000, 10), DELTA);
+		assertEquals(0.95f, PinchMath.predictScale(200, -1000, 10), DELTA);
+	}
+
+	@Test
+	public void predictScaleCapsLead() {
+		assertEquals(1.12f, PinchMath.predictScale(200, 1000, PinchMath.MAX_PREDICTION_MILLIS), DELTA);
+		assertEquals(1.12f, PinchMath.predictScale(200, 1000, 500), DELTA);
+	}
+
+	@Test
+	public void predictScaleWithNothingToPredict() {
+		assertEquals(1.0f, PinchMath.predictScale(0, 1000, 10), 0);
+		assertEquals(1.0f, PinchMath.predictScale(200, 0, 10), 0);
+		assertEquals(1.0f, PinchMath.predictScale(200, 1000, 0), 0);
+		assertEquals(1.0f, PinchMath.predictScale(200, 1000, -5), 0);
+	}
+
+	@Test
+	public void predictScaleNeverCollapsesSpan() {
+		assertEquals(1.0f, PinchMath.predictScale(100, -10000, 24), 0);
+	}
+}
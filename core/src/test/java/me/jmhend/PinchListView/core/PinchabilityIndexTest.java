@@ -0,0 +1,176 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks PinchabilityIndex answers across block boundaries, uniform blocks and invalidation.
+ *
+ * @author jmhend
+ *
+ */
+public class PinchabilityIndexTest {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Matches PinchabilityIndex's block size.
+	 */
+	private static final int BLOCK = 1024;
+
+	private static final int COUNT = 3 * BLOCK + 100;
+
+////=========================================================================================
+//// Rows
+////=========================================================================================
+
+	/**
+	 * Block 0 mixed, block 1 all pinchable, block 2 none, block 3 a partial, mixed tail.
+	 * Counts how often it's asked.
+	 * @author jmhend
+	 *
+	 */
+	private static class Rows implements RowPinchability {
+		private int mQueries;
+		private boolean mInverted;
+
+		@Override
+		public boolean isRowPinchable(int position) {
+			mQueries++;
+			return expected(position) != mInverted;
+		}
+
+		private static boolean expected(int position) {
+			switch (position / BLOCK) {
+				case 1: return true;
+				case 2: return false;
+				default: return position % 2 == 0 || position % 63 == 0;
+			}
+		}
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private Rows mRows;
+	private PinchabilityIndex mIndex;
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() {
+		mRows = new Rows();
+		mIndex = new PinchabilityIndex();
+		mIndex.reset(mRows, COUNT);
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void answersMatchAdapter() {
+		for (int position = 0; position < COUNT; position++) {
+			assertEquals("position " + position, Rows.expected(position), mIndex.isPinchable(position));
+		}
+		assertEquals(COUNT, mRows.mQueries);
+	}
+
+	@Test
+	public void blockBoundaries() {
+		final int[] positions = { 0, 63, 64, BLOCK - 1, BLOCK, 2 * BLOCK - 1, 2 * BLOCK, 3 * BLOCK - 1, 3 * BLOCK, COUNT - 1 };
+		for (int position : positions) {
+			assertEquals("position " + position, Rows.expected(position), mIndex.isPinchable(position));
+		}
+	}
+
+	@Test
+	public void outOfRangeIsNotPinchable() {
+		assertFalse(mIndex.isPinchable(-1));
+		assertFalse(mIndex.isPinchable(COUNT));
+		assertEquals(COUNT, mIndex.getCount());
+	}
+
+	@Test
+	public void blocksAreIndexedLazilyOnce() {
+		mIndex.isPinchable(BLOCK + 5);
+		assertEquals(BLOCK, mRows.mQueries);
+		mIndex.isPinchable(BLOCK + 900);
+		mIndex.isPinchable(2 * BLOCK - 1);
+		assertEquals(BLOCK, mRows.mQueries);
+
+		// The partial last block only asks about rows that exist.
+		mIndex.isPinchable(COUNT - 1);
+		assertEquals(BLOCK + 100, mRows.mQueries);
+	}
+
+	@Test
+	public void invalidateReindexesBlock() {
+		assertTrue(mIndex.isPinchable(BLOCK));
+		assertFalse(mIndex.isPinchable(2 * BLOCK));
+		mRows.mInverted = true;
+		assertTrue(mIndex.isPinchable(BLOCK));
+		mIndex.invalidate(BLOCK + 10);
+		assertFalse(mIndex.isPinchable(BLOCK));
+
+		// Other blocks keep their answers until they're invalidated too.
+		assertFalse(mIndex.isPinchable(2 * BLOCK));
+	}
+
+	@Test
+	public void invalidateAllReindexesEverything() {
+		for (int position = 0; position < COUNT; position++) {
+			mIndex.isPinchable(position);
+		}
+		mRows.mInverted = true;
+		mIndex.invalidateAll(COUNT);
+		for (int position = 0; position < COUNT; position++) {
+			assertEquals("position " + position, !Rows.expected(position), mIndex.isPinchable(position));
+		}
+	}
+
+	@Test
+	public void findNextMatchesScan() {
+		final boolean[] kinds = { true, false };
+		for (boolean pinchable : kinds) {
+			for (int position = -1; position <= COUNT; position++) {
+				int expected = Math.max(position, 0);
+				while (expected < COUNT && Rows.expected(expected) != pinchable) {
+					expected++;
+				}
+				assertEquals("from " + position + ", " + pinchable, expected, mIndex.findNext(position, pinchable));
+			}
+		}
+	}
+
+	@Test
+	public void findNextSkipsUniformBlocks() {
+		assertEquals(2 * BLOCK, mIndex.findNext(BLOCK, false));
+		assertEquals(3 * BLOCK, mIndex.findNext(2 * BLOCK, true));
+
+		// The partial last block never reports rows past the count.
+		mIndex.invalidateAll(BLOCK + 10);
+		mRows.mInverted = true;
+		assertEquals(BLOCK + 10, mIndex.findNext(BLOCK, true));
+		assertEquals(BLOCK, mIndex.findNext(BLOCK, false));
+	}
+
+	@Test
+	public void invalidateAllResizes() {
+		mIndex.invalidateAll(BLOCK + 1);
+		assertEquals(BLOCK + 1, mIndex.getCount());
+		assertTrue(mIndex.isPinchable(BLOCK));
+		assertFalse(mIndex.isPinchable(BLOCK + 1));
+		mIndex.invalidateAll(0);
+		assertFalse(mIndex.isPinchable(0));
+	}
+}
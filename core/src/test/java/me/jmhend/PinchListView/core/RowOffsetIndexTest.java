@@ -0,0 +1,203 @@
+package me.jmhend.PinchListView.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks RowOffsetIndex offsets and lookups against summing row heights one by one.
+ *
+ * @author jmhend
+ *
+ */
+public class RowOffsetIndexTest {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int ROW_COUNT = 5000;
+	private static final int COLLAPSED_HEIGHT = 40;
+	private static final int EXPANDED_HEIGHT = 120;
+	private static final int DIVIDER_HEIGHT = 2;
+
+////=========================================================================================
+//// Rows
+////=========================================================================================
+
+	/**
+	 * Every third row is a fixed-height header; the rest are pinchable.
+	 * @author jmhend
+	 *
+	 */
+	private static class Rows implements RowOffsetIndex.RowSource {
+		private int mCount = ROW_COUNT;
+		private boolean mVariableHeights;
+		private final int[] mOverrides = new int[ROW_COUNT];
+
+		@Override
+		public int getRowCount() {
+			return mCount;
+		}
+
+		@Override
+		public boolean isRowPinchable(int position) {
+			return position % 3 != 0;
+		}
+
+		@Override
+		public int getExpandedRowHeight(int position) {
+			if (mOverrides[position] > 0) {
+				return mOverrides[position];
+			}
+			if (!isRowPinchable(position)) {
+				return 30 + position % 7;
+			}
+			return mVariableHeights ? EXPANDED_HEIGHT + (position % 5) * 20 : EXPANDED_HEIGHT;
+		}
+
+		/**
+		 * @return The height of the row at 'position' when the pinch height is 'pinchHeight'.
+		 */
+		private int getRowHeight(int position, int pinchHeight) {
+			final int expandedHeight = getExpandedRowHeight(position);
+			if (!isRowPinchable(position)) {
+				return expandedHeight;
+			}
+			return PinchMath.rowHeight(pinchHeight, expandedHeight, COLLAPSED_HEIGHT, EXPANDED_HEIGHT);
+		}
+
+		/**
+		 * @return The offset of the row at 'position', summed row by row.
+		 */
+		private int getOffset(int position, int pinchHeight) {
+			int offset = 0;
+			for (int i = 0; i < position; i++) {
+				offset += getRowHeight(i, pinchHeight) + DIVIDER_HEIGHT;
+			}
+			return offset;
+		}
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private Rows mRows;
+	private RowOffsetIndex mIndex;
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() {
+		mRows = new Rows();
+		mIndex = new RowOffsetIndex(mRows);
+		mIndex.setPinchRange(COLLAPSED_HEIGHT, EXPANDED_HEIGHT);
+		mIndex.setDividerHeight(DIVIDER_HEIGHT);
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void offsetsMatchSummedHeights() {
+		final int[] pinchHeights = { COLLAPSED_HEIGHT, 77, EXPANDED_HEIGHT };
+		for (int pinchHeight : pinchHeights) {
+			mIndex.setPinchHeight(pinchHeight);
+			int offset = 0;
+			for (int position = 0; position <= ROW_COUNT; position++) {
+				assertEquals("offset of " + position + " at " + pinchHeight, offset, mIndex.getOffset(position));
+				if (position < ROW_COUNT) {
+					offset += mRows.getRowHeight(position, pinchHeight) + DIVIDER_HEIGHT;
+				}
+			}
+			assertEquals(offset, mIndex.getTotalHeight());
+		}
+	}
+
+	@Test
+	public void variableHeightsAreExactAtEitherEnd() {
+		mRows.mVariableHeights = true;
+		mIndex.invalidate();
+		mIndex.setPinchHeight(COLLAPSED_HEIGHT);
+		assertEquals(mRows.getOffset(ROW_COUNT, COLLAPSED_HEIGHT), mIndex.getTotalHeight());
+		mIndex.setPinchHeight(EXPANDED_HEIGHT);
+		assertEquals(mRows.getOffset(ROW_COUNT, EXPANDED_HEIGHT), mIndex.getTotalHeight());
+
+		// In between, only the rows' own rounding differs.
+		mIndex.setPinchHeight(93);
+		final int position = 1234;
+		final int error = Math.abs(mRows.getOffset(position, 93) - mIndex.getOffset(position));
+		assertTrue("error " + error, error <= position);
+	}
+
+	@Test
+	public void positionAtOffsetFindsCoveringRow() {
+		mIndex.setPinchHeight(77);
+		int top = 0;
+		for (int position = 0; position < ROW_COUNT; position++) {
+			final int bottom = top + mRows.getRowHeight(position, 77) + DIVIDER_HEIGHT;
+			assertEquals(position, mIndex.getPositionAtOffset(top));
+			assertEquals(position, mIndex.getPositionAtOffset(bottom - 1));
+			top = bottom;
+		}
+		assertEquals(0, mIndex.getPositionAtOffset(-10));
+		assertEquals(ROW_COUNT - 1, mIndex.getPositionAtOffset(top + 1000));
+	}
+
+	@Test
+	public void positionAtOffsetWithoutRows() {
+		mRows.mCount = 0;
+		mIndex.invalidate();
+		assertEquals(-1, mIndex.getPositionAtOffset(0));
+		assertEquals(0, mIndex.getTotalHeight());
+	}
+
+	@Test
+	public void invalidateRowRereadsOnlyThatRow() {
+		mIndex.setPinchHeight(EXPANDED_HEIGHT);
+		mIndex.getTotalHeight();
+		mRows.mOverrides[9] = 500;
+		mRows.mOverrides[10] = 333;
+		mIndex.invalidateRow(9);
+		mIndex.invalidateRow(10);
+		for (int position = 0; position <= ROW_COUNT; position += 97) {
+			assertEquals(mRows.getOffset(position, EXPANDED_HEIGHT), mIndex.getOffset(position));
+		}
+		assertEquals(mRows.getOffset(ROW_COUNT, EXPANDED_HEIGHT), mIndex.getTotalHeight());
+	}
+
+	@Test
+	public void buildsInSlices() {
+		mIndex.setPinchHeight(77);
+		assertFalse(mIndex.isBuilt());
+		int slices = 1;
+		while (!mIndex.build(700)) {
+			slices++;
+		}
+		assertEquals((ROW_COUNT + 699) / 700, slices);
+		assertTrue(mIndex.isBuilt());
+		assertEquals(mRows.getOffset(ROW_COUNT, 77), mIndex.getTotalHeight());
+	}
+
+	@Test
+	public void invalidateRowDuringPartialBuild() {
+		mIndex.setPinchHeight(EXPANDED_HEIGHT);
+		mIndex.build(1000);
+
+		// One row already built, one not.
+		mRows.mOverrides[500] = 450;
+		mRows.mOverrides[3000] = 450;
+		mIndex.invalidateRow(500);
+		mIndex.invalidateRow(3000);
+		for (int position = 0; position <= ROW_COUNT; position += 89) {
+			assertEquals(mRows.getOffset(position, EXPANDED_HEIGHT), mIndex.getOffset(position));
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package me.jmhend.PinchListView.macrobench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import me.jmhend.PinchListView.GestureReplayer;
+import me.jmhend.PinchListView.IScaleGestureDetector;
+import me.jmhend.PinchListView.IScaleGestureDetector.IOnScaleGestureListener;
+import me.jmhend.PinchListView.core.GestureTrace;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Replays the checked-in spread.trace through an IScaleGestureDetector and checks
+ * the scale callbacks it produces.
+ *
+ * spread.trace is a two-finger spread down the middle of a 1080x1920 screen:
+ * one pointer goes down, a second goes down 200px below it, then 30 MOVE events,
+ * each batching two samples 8ms apart, spread them evenly to 900px apart,
+ * and the second pointer lifts before the first.
+ *
+ * @author jmhend
+ *
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class GestureReplayTest {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	static final String SPREAD_TRACE = "spread.trace";
+
+	private static final int MOVE_EVENTS = 30;
+	private static final float START_SPAN = 200;
+	private static final float END_SPAN = 900;
+	private static final float FOCUS_Y = 960;
+	private static final float DELTA = 0.01f;
+
+////=========================================================================================
+//// Listener
+////=========================================================================================
+
+	/**
+	 * Records what the detector reports in each callback.
+	 * @author jmhend
+	 *
+	 */
+	private static class RecordingListener implements IOnScaleGestureListener {
+		private int mBegins;
+		private int mScales;
+		private int mEnds;
+		private float mBeginFocusY;
+		private float mFirstSpan;
+		private float mLastSpan;
+		private float mMinScaleFactor = Float.MAX_VALUE;
+		private boolean mSteadyTimeDeltas = true;
+		private float mEndSpanVelocity;
+		private boolean mScaledAfterEnd;
+
+		@Override
+		public boolean onScaleBegin(IScaleGestureDetector detector) {
+			mBegins++;
+			mBeginFocusY = detector.getFocusY();
+			return true;
+		}
+
+		@Override
+		public boolean onScale(IScaleGestureDetector detector) {
+			if (mEnds > 0) {
+				mScaledAfterEnd = true;
+			}
+			if (mScales == 0) {
+				mFirstSpan = detector.getCurrentSpan();
+			} else if (detector.getTimeDelta() != 16) {
+				mSteadyTimeDeltas = false;
+			}
+			mScales++;
+			mLastSpan = detector.getCurrentSpan();
+			mMinScaleFactor = Math.min(mMinScaleFactor, detector.getScaleFactor());
+			return true;
+		}
+
+		@Override
+		public void onScaleEnd(IScaleGestureDetector detector) {
+			mEnds++;
+			mEndSpanVelocity = detector.getSpanVelocity();
+		}
+	}
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private GestureTrace mTrace;
+	private RecordingListener mListener;
+	private IScaleGestureDetector mDetector;
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() throws IOException {
+		mTrace = readTrace(SPREAD_TRACE);
+		mListener = new RecordingListener();
+		mDetector = new IScaleGestureDetector(RuntimeEnvironment.application, mListener);
+	}
+
+	/**
+	 * @param name
+	 * @return The trace checked in as resource 'name' next to this class.
+	 * @throws IOException
+	 */
+	static GestureTrace readTrace(String name) throws IOException {
+		final InputStream in = GestureReplayTest.class.getResourceAsStream(name);
+		if (in == null) {
+			throw new IOException("Missing trace resource " + name);
+		}
+		try {
+			return GestureTrace.readFrom(in);
+		} finally {
+			in.close();
+		}
+	}
+
+////=========================================================================================
+//// Tests
+////=========================================================================================
+
+	@Test
+	public void traceHoldsBatchedSpread() {
+		assertEquals(MOVE_EVENTS + 4, mTrace.getEventCount());
+		assertEquals(2, mTrace.getPointerCount(1));
+		assertEquals(2, mTrace.getSampleCount(2));
+	}
+
+	@Test
+	public void replayScalesOnceThroughSpread() {
+		new GestureReplayer(mTrace).replay(mDetector);
+
+		assertEquals(1, mListener.mBegins);
+		assertEquals(1, mListener.mEnds);
+		assertFalse(mListener.mScaledAfterEnd);
+		assertFalse(mDetector.isInProgress());
+		assertEquals(FOCUS_Y, mListener.mBeginFocusY, DELTA);
+
+		// The first MOVE passes the touch slop and begins; every MOVE then scales, once per batch.
+		assertEquals(MOVE_EVENTS, mListener.mScales);
+		assertEquals(START_SPAN + (END_SPAN - START_SPAN) / MOVE_EVENTS, mListener.mFirstSpan, DELTA);
+		assertEquals(END_SPAN, mListener.mLastSpan, DELTA);
+		assertTrue(mListener.mMinScaleFactor >= 1.0f);
+		assertTrue(mListener.mSteadyTimeDeltas);
+
+		// 700px over 60 samples 8ms apart: about 1458px/s, folded in from every batched sample.
+		final float velocity = (END_SPAN - START_SPAN) * 1000.0f / (MOVE_EVENTS * 2 * 8);
+		assertEquals(velocity, mListener.mEndSpanVelocity, velocity * 0.02f);
+	}
+
+	@Test
+	public void replayIsRepeatable() {
+		final GestureReplayer replayer = new GestureReplayer(mTrace);
+		replayer.replay(mDetector);
+		final float firstVelocity = mListener.mEndSpanVelocity;
+		assertFalse(replayer.hasNext());
+
+		replayer.rewind();
+		replayer.replay(mDetector);
+		assertEquals(2, mListener.mBegins);
+		assertEquals(2, mListener.mEnds);
+		assertEquals(MOVE_EVENTS * 2, mListener.mScales);
+		assertEquals(firstVelocity, mListener.mEndSpanVelocity, 0);
+	}
+}
@@ -0,0 +1,332 @@
+package me.jmhend.PinchListView.macrobench;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import me.jmhend.PinchListView.GestureReplayer;
+import me.jmhend.PinchListView.PinchListView;
+import me.jmhend.PinchListView.PinchStats;
+import me.jmhend.PinchListView.core.GestureTrace;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Drives the whole view-level pinch pipeline headless: a PinchListView over 100,000 
+ * synthetic rows receives scripted two-pointer pinches, one MotionEvent per simulated 
+ * frame, and each frame is laid out and drawn. Prints, per frame and in total, the getView() 
+ * calls, row measures and layouts, and wall time, so runs before and after a change compare.
+ * compareBatchedPinchLayout() runs the same pinches with and without batched pinch layout.
+ *
+ * replayTrace() replays a recorded GestureTrace: the file named by the system property 
+ * 'pinch.trace', or else the checked-in spread.trace. Its events are delivered on the
+ * 16ms frame their last sample falls in, as the input system batches them.
+ *
+ * @author jmhend
+ *
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class PinchMacroBenchmark {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final int ROW_COUNT = 100000;
+	private static final int ROW_HEIGHT = 120;
+	private static final int WIDTH = 1080;
+	private static final int HEIGHT = 1920;
+	private static final long FRAME_MILLIS = 16;
+
+	private static final int PINCH_FRAMES = 30;
+	private static final int SETTLE_FRAMES = 20;
+	private static final int WIDE_SPAN = 900;
+	private static final int NARROW_SPAN = 200;
+
+	/**
+	 * Pinch gestures run before measuring, so the runtime has warmed up.
+	 */
+	private static final int WARMUP_GESTURES = 4;
+	
+	private static final String TRACE_PROPERTY = "pinch.trace";
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private PinchListView mListView;
+	private SyntheticPinchAdapter mAdapter;
+	private Canvas mCanvas;
+	private long mDownTime;
+
+	private int mFrameCount;
+	private long[] mFrameNanos = new long[0];
+	private int[] mFrameGetViews = new int[0];
+	private int[] mFrameMeasures = new int[0];
+	private int[] mFrameLayouts = new int[0];
+	private boolean mRecording;
+	private final ArrayList<MotionEvent> mPendingEvents = new ArrayList<MotionEvent>();
+
+////=========================================================================================
+//// Setup
+////=========================================================================================
+
+	@Before
+	public void setUp() {
+		mListView = new PinchListView(RuntimeEnvironment.application);
+		mAdapter = new SyntheticPinchAdapter(RuntimeEnvironment.application, mListView, ROW_COUNT, ROW_HEIGHT);
+		mListView.setAdapter(mAdapter);
+		mListView.setSelection(ROW_COUNT / 2);
+		mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+		layOutAndDraw();
+	}
+
+////=========================================================================================
+//// Benchmarks
+////=========================================================================================
+
+	@Test
+	public void pinchCollapseThenExpand() {
+		for (int i = 0; i < WARMUP_GESTURES; i++) {
+			pinch(WIDE_SPAN, NARROW_SPAN);
+			pinch(NARROW_SPAN, WIDE_SPAN);
+		}
+
+		mRecording = true;
+		pinch(WIDE_SPAN, NARROW_SPAN);
+		report("collapse");
+		pinch(NARROW_SPAN, WIDE_SPAN);
+		report("expand");
+		mRecording = false;
+	}
+
+	@Test
+	public void compareBatchedPinchLayout() {
+		mListView.setPinchStatsEnabled(true);
+		for (int i = 0; i < WARMUP_GESTURES; i++) {
+			pinch(WIDE_SPAN, NARROW_SPAN);
+			pinch(NARROW_SPAN, WIDE_SPAN);
+		}
+		
+		final boolean[] modes = { true, false };
+		for (boolean batched : modes) {
+			final String mode = batched ? "batched" : "unbatched";
+			mListView.setBatchedPinchLayoutEnabled(batched);
+			mRecording = true;
+			pinch(WIDE_SPAN, NARROW_SPAN);
+			report(mode + " collapse");
+			reportLayoutRequests(mode + " collapse");
+			pinch(NARROW_SPAN, WIDE_SPAN);
+			report(mode + " expand");
+			reportLayoutRequests(mode + " expand");
+			mRecording = false;
+		}
+	}
+
+	@Test
+	public void replayTrace() throws IOException {
+		final String path = System.getProperty(TRACE_PROPERTY);
+		final GestureTrace trace;
+		if (path == null) {
+			trace = GestureReplayTest.readTrace(GestureReplayTest.SPREAD_TRACE);
+		} else {
+			final InputStream in = new FileInputStream(path);
+			try {
+				trace = GestureTrace.readFrom(in);
+			} finally {
+				in.close();
+			}
+		}
+		
+		// Events keep their recorded timestamps. Each frame delivers the events whose last sample 
+		// falls within it, so frames without input still run, and a frame can deliver several.
+		final GestureReplayer replayer = new GestureReplayer(trace);
+		final int eventCount = trace.getEventCount();
+		mRecording = true;
+		if (eventCount > 0) {
+			long frameEnd = trace.getSampleTime(0, 0) + FRAME_MILLIS;
+			for (int i = 0; i < eventCount; frameEnd += FRAME_MILLIS) {
+				while (i < eventCount && trace.getSampleTime(i, trace.getSampleCount(i) - 1) < frameEnd) {
+					mPendingEvents.add(replayer.obtainEvent(i++));
+				}
+				frame();
+			}
+		}
+		for (int i = 0; i < SETTLE_FRAMES; i++) {
+			frame();
+		}
+		report("trace " + (path != null ? path : GestureReplayTest.SPREAD_TRACE));
+		mRecording = false;
+	}
+
+////=========================================================================================
+//// Gesture script
+////=========================================================================================
+
+	/**
+	 * Two pointers, one above the other through the middle of the list, move from 
+	 * 'fromSpan' apart to 'toSpan' apart, then lift and the pinch settles.
+	 */
+	private void pinch(int fromSpan, int toSpan) {
+		mDownTime = SystemClock.uptimeMillis();
+		frame(obtain(MotionEvent.ACTION_DOWN, 1, fromSpan));
+		frame(obtain(MotionEvent.ACTION_POINTER_DOWN | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT), 2, fromSpan));
+		for (int i = 1; i <= PINCH_FRAMES; i++) {
+			final int span = fromSpan + (toSpan - fromSpan) * i / PINCH_FRAMES;
+			frame(obtain(MotionEvent.ACTION_MOVE, 2, span));
+		}
+		frame(obtain(MotionEvent.ACTION_POINTER_UP | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT), 2, toSpan));
+		frame(obtain(MotionEvent.ACTION_UP, 1, toSpan));
+		for (int i = 0; i < SETTLE_FRAMES; i++) {
+			frame();
+		}
+	}
+
+	/**
+	 * @return A MotionEvent with 'pointerCount' pointers, 'span' apart about the list's middle.
+	 */
+	private MotionEvent obtain(int action, int pointerCount, int span) {
+		final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+		final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+		for (int i = 0; i < pointerCount; i++) {
+			properties[i] = new MotionEvent.PointerProperties();
+			properties[i].id = i;
+			properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+			coords[i] = new MotionEvent.PointerCoords();
+			coords[i].x = WIDTH / 2;
+			coords[i].y = HEIGHT / 2 + (i == 0 ? -span / 2 : span / 2);
+			coords[i].pressure = 1.0f;
+			coords[i].size = 1.0f;
+		}
+		return MotionEvent.obtain(mDownTime, SystemClock.uptimeMillis(), action, pointerCount, properties, coords, 
+				0, 0, 1.0f, 1.0f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+	}
+
+////=========================================================================================
+//// Frames
+////=========================================================================================
+
+	/**
+	 * Simulates one frame that delivers 'event', if any.
+	 */
+	private void frame(MotionEvent event) {
+		if (event != null) {
+			mPendingEvents.add(event);
+		}
+		frame();
+	}
+
+	/**
+	 * Simulates one frame: delivers the pending events, runs the frame's callbacks, 
+	 * then lays out and draws the list if it needs it.
+	 */
+	private void frame() {
+		final int getViews = mAdapter.getGetViewCount();
+		final int measures = mAdapter.getMeasureCount();
+		final int layouts = mAdapter.getLayoutCount();
+		final long start = System.nanoTime();
+
+		for (int i = 0; i < mPendingEvents.size(); i++) {
+			final MotionEvent event = mPendingEvents.get(i);
+			mListView.dispatchTouchEvent(event);
+			event.recycle();
+		}
+		mPendingEvents.clear();
+		Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+		layOutAndDraw();
+
+		if (mRecording) {
+			record(System.nanoTime() - start, mAdapter.getGetViewCount() - getViews,
+					mAdapter.getMeasureCount() - measures, mAdapter.getLayoutCount() - layouts);
+		}
+	}
+
+	private void layOutAndDraw() {
+		if (mListView.isLayoutRequested()) {
+			mListView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY), 
+					View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+			mListView.layout(0, 0, WIDTH, HEIGHT);
+		}
+		mListView.draw(mCanvas);
+	}
+
+////=========================================================================================
+//// Reporting
+////=========================================================================================
+
+	private void record(long nanos, int getViews, int measures, int layouts) {
+		if (mFrameCount == mFrameNanos.length) {
+			final int capacity = Math.max(mFrameCount * 2, 64);
+			mFrameNanos = Arrays.copyOf(mFrameNanos, capacity);
+			mFrameGetViews = Arrays.copyOf(mFrameGetViews, capacity);
+			mFrameMeasures = Arrays.copyOf(mFrameMeasures, capacity);
+			mFrameLayouts = Arrays.copyOf(mFrameLayouts, capacity);
+		}
+		mFrameNanos[mFrameCount] = nanos;
+		mFrameGetViews[mFrameCount] = getViews;
+		mFrameMeasures[mFrameCount] = measures;
+		mFrameLayouts[mFrameCount] = layouts;
+		mFrameCount++;
+	}
+
+	/**
+	 * Prints the frames recorded since the last report, then clears them.
+	 */
+	private void report(String name) {
+		System.out.println("== " + name + ": " + ROW_COUNT + " rows, " + mFrameCount + " frames");
+		System.out.println("frame\tgetView\tmeasure\tlayout\tms");
+		long totalNanos = 0;
+		int totalGetViews = 0;
+		int totalMeasures = 0;
+		int totalLayouts = 0;
+		for (int i = 0; i < mFrameCount; i++) {
+			System.out.println(i + "\t" + mFrameGetViews[i] + "\t" + mFrameMeasures[i] + "\t" 
+					+ mFrameLayouts[i] + "\t" + formatMillis(mFrameNanos[i]));
+			totalNanos += mFrameNanos[i];
+			totalGetViews += mFrameGetViews[i];
+			totalMeasures += mFrameMeasures[i];
+			totalLayouts += mFrameLayouts[i];
+		}
+
+		final long[] sorted = Arrays.copyOf(mFrameNanos, mFrameCount);
+		Arrays.sort(sorted);
+		System.out.println("total\t" + totalGetViews + "\t" + totalMeasures + "\t" + totalLayouts + "\t" + formatMillis(totalNanos));
+		if (mFrameCount > 0) {
+			System.out.println("ms per frame: mean " + formatMillis(totalNanos / mFrameCount)
+					+ ", p50 " + formatMillis(sorted[mFrameCount / 2])
+					+ ", p95 " + formatMillis(sorted[Math.min(mFrameCount * 95 / 100, mFrameCount - 1)])
+					+ ", max " + formatMillis(sorted[mFrameCount - 1]));
+		}
+		mFrameCount = 0;
+	}
+
+	/**
+	 * Prints the layout requests PinchStats counted over the last gesture.
+	 */
+	private void reportLayoutRequests(String name) {
+		final PinchStats stats = mListView.getPinchStats(new PinchStats());
+		System.out.println("== " + name + ": " + stats.getLayoutRequestCount() + " layout requests, "
+				+ stats.getChildrenTouchedCount() + " children touched");
+	}
+
+	private static String formatMillis(long nanos) {
+		return String.format("%.3f", nanos / 1000000.0);
+	}
+}
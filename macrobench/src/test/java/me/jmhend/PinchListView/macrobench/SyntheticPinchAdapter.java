@@ -0,0 +1,166 @@
+package me.jmhend.PinchListView.macrobench;
+
+import me.jmhend.PinchListView.PinchAdapter;
+import me.jmhend.PinchListView.PinchListView;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+/**
+ * A synthetic PinchAdapter, pinchable like the demo's: every third and fourth row.
+ * Counts getView() calls, and the measures and layouts of the rows it creates.
+ *
+ * @author jmhend
+ *
+ */
+final class SyntheticPinchAdapter extends BaseAdapter implements PinchAdapter {
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final Context mContext;
+	private final PinchListView mListView;
+	private final int mCount;
+	private final int mRowHeight;
+
+	private int mGetViewCount;
+	private int mMeasureCount;
+	private int mLayoutCount;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param context
+	 * @param listView
+	 * @param count
+	 * @param rowHeight Height of the non-pinchable rows.
+	 */
+	SyntheticPinchAdapter(Context context, PinchListView listView, int count, int rowHeight) {
+		mContext = context;
+		mListView = listView;
+		mCount = count;
+		mRowHeight = rowHeight;
+	}
+
+////=========================================================================================
+//// Counters
+////=========================================================================================
+
+	int getGetViewCount() {
+		return mGetViewCount;
+	}
+
+	int getMeasureCount() {
+		return mMeasureCount;
+	}
+
+	int getLayoutCount() {
+		return mLayoutCount;
+	}
+
+////=========================================================================================
+//// PinchAdapter
+////=========================================================================================
+
+	/*
+	 * (non-Javadoc)
+	 * @see me.jmhend.PinchListView.PinchAdapter#isRowPinchable(int)
+	 */
+	@Override
+	public boolean isRowPinchable(int position) {
+		return (position % 3 == 0) || (position % 4 == 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getCount()
+	 */
+	@Override
+	public int getCount() {
+		return mCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getItem(int)
+	 */
+	@Override
+	public Object getItem(int position) {
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getItemId(int)
+	 */
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.BaseAdapter#hasStableIds()
+	 */
+	@Override
+	public boolean hasStableIds() {
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getView(int, android.view.View, android.view.ViewGroup)
+	 */
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		mGetViewCount++;
+		RowView row = (RowView) convertView;
+		if (row == null) {
+			row = new RowView(mContext);
+			row.setLayoutParams(new AbsListView.LayoutParams(AbsListView.LayoutParams.MATCH_PARENT, mRowHeight));
+		}
+		row.setText(mListView.isRowPinchable(position) ? "Pinch me!" : "Don't even think about it.");
+		mListView.adjustCellHeight(row, position);
+		return row;
+	}
+
+////=========================================================================================
+//// RowView
+////=========================================================================================
+
+	/**
+	 * A row that counts its measures and layouts.
+	 */
+	private final class RowView extends TextView {
+
+		private RowView(Context context) {
+			super(context);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see android.widget.TextView#onMeasure(int, int)
+		 */
+		@Override
+		protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+			mMeasureCount++;
+			super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see android.widget.TextView#onLayout(boolean, int, int, int, int)
+		 */
+		@Override
+		protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+			mLayoutCount++;
+			super.onLayout(changed, left, top, right, bottom);
+		}
+	}
+}
@@ -0,0 +1,418 @@
+package me.jmhend.PinchListView;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.ListAdapter;
+
+/**
+ * Wraps a PinchListView's adapter so that, while the list rests fully collapsed,
+ * each run of consecutive pinchable rows is a single strip View instead of one
+ * bound row View per row.
+ *
+ * The strip is exactly as tall as the collapsed rows and dividers it stands in for,
+ * so content offsets don't change when the list switches between strips and rows.
+ * Outside of collapsed mode the wrapper passes everything through to the adapter.
+ *
+ * Positions in the wrapper are list positions; each covers one or more adapter positions.
+ * Only the strips are stored, so mapping between the two is a binary search over the runs.
+ * Rows are served from the PinchListView's prefetched rows when it has them.
+ *
+ * @author jmhend
+ *
+ */
+class CollapsedRunAdapter extends BaseAdapter {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Shortest run of pinchable rows drawn as a strip; a lone pinchable row stays a row.
+	 */
+	private static final int MIN_RUN_LENGTH = 2;
+
+	private static final int INITIAL_RUN_CAPACITY = 16;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final PinchListView mListView;
+	private final ListAdapter mAdapter;
+
+	private boolean mCollapsed;
+	private int mCount;
+
+	/**
+	 * For each strip, in order: the first adapter position it covers, 
+	 * its wrapper position, and the number of rows it covers.
+	 */
+	private int[] mRunStarts = new int[INITIAL_RUN_CAPACITY];
+	private int[] mRunPositions = new int[INITIAL_RUN_CAPACITY];
+	private int[] mRunLengths = new int[INITIAL_RUN_CAPACITY];
+	private int mRunCount;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param listView
+	 * @param adapter
+	 */
+	CollapsedRunAdapter(PinchListView listView, ListAdapter adapter) {
+		mListView = listView;
+		mAdapter = adapter;
+		rebuild();
+	}
+
+////=========================================================================================
+//// Runs
+////=========================================================================================
+
+	/**
+	 * @return True if runs of pinchable rows are drawn as strips.
+	 */
+	boolean isCollapsed() {
+		return mCollapsed;
+	}
+
+	/**
+	 * Switches between strips and rows, notifying the list.
+	 * @param collapsed
+	 */
+	void setCollapsed(boolean collapsed) {
+		if (collapsed == mCollapsed) {
+			return;
+		}
+		mCollapsed = collapsed;
+		rebuild();
+		notifyDataSetChanged();
+	}
+
+	/**
+	 * Rebuilds the runs after the adapter's data changed, and notifies the list.
+	 */
+	void onAdapterChanged() {
+		rebuild();
+		notifyDataSetChanged();
+	}
+
+	/**
+	 * Notifies the list that the adapter's data is no longer valid.
+	 */
+	void onAdapterInvalidated() {
+		rebuild();
+		notifyDataSetInvalidated();
+	}
+
+	/**
+	 * Finds the runs of pinchable rows. The pinchability index skips uniform blocks whole,
+	 * so this takes a step per block and per run rather than per row.
+	 */
+	private void rebuild() {
+		final int count = mAdapter.getCount();
+		mRunCount = 0;
+		if (!mCollapsed) {
+			mCount = count;
+			return;
+		}
+		int covered = 0;
+		int position = Math.min(mListView.findNextRow(0, true), count);
+		while (position < count) {
+			final int end = Math.min(mListView.findNextRow(position + 1, false), count);
+			final int length = end - position;
+			if (length >= MIN_RUN_LENGTH) {
+				addRun(position, position - covered, length);
+				covered += length - 1;
+			}
+			position = end < count ? Math.min(mListView.findNextRow(end + 1, true), count) : count;
+		}
+		mCount = count - covered;
+	}
+
+	/**
+	 * Appends a strip, growing the run arrays if they're full.
+	 */
+	private void addRun(int start, int position, int length) {
+		if (mRunCount == mRunStarts.length) {
+			final int capacity = mRunCount * 2;
+			mRunStarts = grow(mRunStarts, capacity);
+			mRunPositions = grow(mRunPositions, capacity);
+			mRunLengths = grow(mRunLengths, capacity);
+		}
+		mRunStarts[mRunCount] = start;
+		mRunPositions[mRunCount] = position;
+		mRunLengths[mRunCount] = length;
+		mRunCount++;
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		final int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * O(log runs).
+	 * @param values Ascending values, one per run.
+	 * @param value
+	 * @return The last run whose value is at or before 'value', or -1 if there's none.
+	 */
+	private int findRun(int[] values, int value) {
+		int low = 0;
+		int high = mRunCount - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (values[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * O(log runs).
+	 * @param position A wrapper position.
+	 * @return The first adapter position 'position' covers.
+	 */
+	int getAdapterPosition(int position) {
+		final int run = mCollapsed ? findRun(mRunPositions, position) : -1;
+		if (run < 0) {
+			return position;
+		}
+		if (position == mRunPositions[run]) {
+			return mRunStarts[run];
+		}
+		return mRunStarts[run] + mRunLengths[run] + (position - mRunPositions[run] - 1);
+	}
+
+	/**
+	 * O(log runs).
+	 * @param position A wrapper position.
+	 * @return The number of adapter positions 'position' covers.
+	 */
+	int getRunLength(int position) {
+		final int run = mCollapsed ? findRun(mRunPositions, position) : -1;
+		return run >= 0 && position == mRunPositions[run] ? mRunLengths[run] : 1;
+	}
+
+	/**
+	 * O(log runs).
+	 * @param adapterPosition
+	 * @return The wrapper position covering 'adapterPosition'.
+	 */
+	int getPosition(int adapterPosition) {
+		final int run = mCollapsed ? findRun(mRunStarts, adapterPosition) : -1;
+		if (run < 0) {
+			return adapterPosition;
+		}
+		final int runEnd = mRunStarts[run] + mRunLengths[run];
+		if (adapterPosition < runEnd) {
+			return mRunPositions[run];
+		}
+		return mRunPositions[run] + 1 + (adapterPosition - runEnd);
+	}
+
+	/**
+	 * @return The height of a collapsed row plus the divider below it.
+	 */
+	int getRowStride() {
+		return mListView.getCollapsedHeight() + mListView.getDividerHeight();
+	}
+
+////=========================================================================================
+//// ListAdapter
+////=========================================================================================
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getCount()
+	 */
+	@Override
+	public int getCount() {
+		return mCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getItem(int)
+	 */
+	@Override
+	public Object getItem(int position) {
+		return mAdapter.getItem(getAdapterPosition(position));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getItemId(int)
+	 */
+	@Override
+	public long getItemId(int position) {
+		return mAdapter.getItemId(getAdapterPosition(position));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.BaseAdapter#hasStableIds()
+	 */
+	@Override
+	public boolean hasStableIds() {
+		return mAdapter.hasStableIds();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.BaseAdapter#getViewTypeCount()
+	 */
+	@Override
+	public int getViewTypeCount() {
+		return mAdapter.getViewTypeCount() + 1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.BaseAdapter#getItemViewType(int)
+	 */
+	@Override
+	public int getItemViewType(int position) {
+		if (getRunLength(position) > 1) {
+			return mAdapter.getViewTypeCount();
+		}
+		return mAdapter.getItemViewType(getAdapterPosition(position));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.BaseAdapter#areAllItemsEnabled()
+	 */
+	@Override
+	public boolean areAllItemsEnabled() {
+		return mAdapter.areAllItemsEnabled();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.BaseAdapter#isEnabled(int)
+	 */
+	@Override
+	public boolean isEnabled(int position) {
+		return getRunLength(position) > 1 || mAdapter.isEnabled(getAdapterPosition(position));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.Adapter#getView(int, android.view.View, android.view.ViewGroup)
+	 */
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		final int runLength = getRunLength(position);
+		if (runLength == 1) {
+			final int adapterPosition = getAdapterPosition(position);
+			final View prefetched = mListView.takePrefetchedRow(adapterPosition);
+			if (prefetched != null) {
+				return prefetched;
+			}
+			return mAdapter.getView(adapterPosition, convertView, parent);
+		}
+		final RunView view = convertView instanceof RunView ? (RunView) convertView : new RunView(parent.getContext());
+		view.bind(runLength, mListView.getCollapsedHeight(), mListView.getDividerHeight(),
+				mListView.getDivider(), mListView.getCollapsedRunColor());
+		return view;
+	}
+
+////=========================================================================================
+//// RunView
+////=========================================================================================
+
+	/**
+	 * Draws a run of collapsed rows: a filled rect per row, with the list's divider between them.
+	 * @author jmhend
+	 *
+	 */
+	static class RunView extends View {
+
+		private final Paint mPaint = new Paint();
+		private final Rect mClipBounds = new Rect();
+		private int mRunLength;
+		private int mRowHeight;
+		private int mDividerHeight;
+		private Drawable mDivider;
+		private int mColor;
+
+		/**
+		 * @param context
+		 */
+		RunView(Context context) {
+			super(context);
+		}
+
+		/**
+		 * Sizes the View to stand in for 'runLength' rows 'rowHeight' tall.
+		 */
+		private void bind(int runLength, int rowHeight, int dividerHeight, Drawable divider, int color) {
+			mRunLength = runLength;
+			mRowHeight = rowHeight;
+			mDividerHeight = dividerHeight;
+			mDivider = divider;
+			mColor = color;
+			mPaint.setColor(color);
+			final int height = runLength * rowHeight + (runLength - 1) * dividerHeight;
+			ViewGroup.LayoutParams params = getLayoutParams();
+			if (params == null) {
+				setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, height));
+			} else if (params.height != height) {
+				params.height = height;
+				setLayoutParams(params);
+			}
+			invalidate();
+		}
+
+		/**
+		 * @param y Relative to the View's top.
+		 * @return The index, within the run, of the row at 'y'.
+		 */
+		int getRowAt(int y) {
+			final int stride = mRowHeight + mDividerHeight;
+			if (stride <= 0) {
+				return 0;
+			}
+			return Math.max(Math.min(y / stride, mRunLength - 1), 0);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see android.view.View#onDraw(android.graphics.Canvas)
+		 */
+		@Override
+		protected void onDraw(Canvas canvas) {
+			// A long run is mostly off screen; only draw the rows inside the clip.
+			if (mRunLength <= 0 || !canvas.getClipBounds(mClipBounds)) {
+				return;
+			}
+			final int first = getRowAt(mClipBounds.top);
+			final int last = getRowAt(mClipBounds.bottom - 1);
+			final int width = getWidth();
+			final int stride = mRowHeight + mDividerHeight;
+			for (int i = first; i <= last; i++) {
+				final int top = i * stride;
+				if (mColor != 0) {
+					canvas.drawRect(0, top, width, top + mRowHeight, mPaint);
+				}
+				if (mDivider != null && mDividerHeight > 0 && i < mRunLength - 1) {
+					mDivider.setBounds(0, top + mRowHeight, width, top + stride);
+					mDivider.draw(canvas);
+				}
+			}
+		}
+	}
+}
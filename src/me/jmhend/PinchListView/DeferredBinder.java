@@ -0,0 +1,261 @@
+package me.jmhend.PinchListView;
+
+import java.util.IdentityHashMap;
+
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * Spreads a PinchListView's detail binds across frames.
+ *
+ * Rows bound while a pinch or pinch animation is running get a cheap shell right away
+ * and are queued here. Once per frame, the queue is drained in order until the frame's
+ * time budget is spent, binding at least one row, so no single frame binds every row
+ * that entered the viewport. Each row View remembers its queue slot, so queuing and
+ * cancelling a row are O(1) however many rows are waiting.
+ *
+ * @author jmhend
+ *
+ */
+class DeferredBinder implements Runnable {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Default time, in milliseconds, spent binding queued rows per frame.
+	 */
+	static final float DEFAULT_BUDGET_MILLIS = 4.0f;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final PinchListView mListView;
+	private final VsyncCallback mVsync;
+
+	private View[] mViews = new View[INITIAL_CAPACITY];
+	private int[] mPositions = new int[INITIAL_CAPACITY];
+	private int mHead;
+	private int mTail;
+
+	/**
+	 * Each queued row View's index in the queue. A View leaves it as soon as 
+	 * it's bound, cancelled or skipped, so it only ever holds queued Views.
+	 */
+	private final IdentityHashMap<View, int[]> mSlots = new IdentityHashMap<View, int[]>();
+
+	private long mBudgetNanos = (long) (DEFAULT_BUDGET_MILLIS * 1000000L);
+	private boolean mScheduled;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param listView
+	 */
+	DeferredBinder(PinchListView listView) {
+		mListView = listView;
+		mVsync = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ? new VsyncCallback(this) : null;
+	}
+
+////=========================================================================================
+//// Queue
+////=========================================================================================
+
+	/**
+	 * @return The time, in milliseconds, spent binding queued rows per frame.
+	 */
+	float getBudgetMillis() {
+		return ((float) mBudgetNanos) / 1000000L;
+	}
+
+	/**
+	 * @param budgetMillis The time spent binding queued rows per frame.
+	 */
+	void setBudgetMillis(float budgetMillis) {
+		mBudgetNanos = (long) (budgetMillis * 1000000L);
+	}
+
+	/**
+	 * @return True if no rows are waiting to be bound.
+	 */
+	boolean isEmpty() {
+		return mHead == mTail;
+	}
+
+	/**
+	 * Queues 'view' to be bound as the row at 'position', replacing any binding already queued for it.
+	 * @param view
+	 * @param position
+	 */
+	void defer(View view, int position) {
+		final int[] slot = mSlots.get(view);
+		if (slot != null) {
+			mPositions[slot[0]] = position;
+			return;
+		}
+		if (mTail == mViews.length) {
+			grow();
+		}
+		mViews[mTail] = view;
+		mPositions[mTail] = position;
+		mSlots.put(view, new int[] { mTail });
+		mTail++;
+		schedule();
+	}
+
+	/**
+	 * Drops any binding queued for 'view', e.g. because it's being bound in full right now.
+	 * @param view
+	 */
+	void cancel(View view) {
+		final int[] slot = mSlots.remove(view);
+		if (slot != null) {
+			mViews[slot[0]] = null;
+		}
+	}
+
+	/**
+	 * Drops every queued binding.
+	 */
+	void clear() {
+		for (int i = mHead; i < mTail; i++) {
+			mViews[i] = null;
+		}
+		mHead = 0;
+		mTail = 0;
+		mSlots.clear();
+		if (mScheduled) {
+			mScheduled = false;
+			if (mVsync != null) {
+				mVsync.cancel();
+			} else {
+				mListView.removeCallbacks(this);
+			}
+		}
+	}
+
+	/**
+	 * Compacts the queue to the front of its arrays, doubling them if it's full.
+	 */
+	private void grow() {
+		final int count = mTail - mHead;
+		if (count * 2 > mViews.length) {
+			final View[] views = new View[mViews.length * 2];
+			final int[] positions = new int[mViews.length * 2];
+			System.arraycopy(mViews, mHead, views, 0, count);
+			System.arraycopy(mPositions, mHead, positions, 0, count);
+			mViews = views;
+			mPositions = positions;
+		} else {
+			System.arraycopy(mViews, mHead, mViews, 0, count);
+			System.arraycopy(mPositions, mHead, mPositions, 0, count);
+			for (int i = count; i < mTail; i++) {
+				mViews[i] = null;
+			}
+		}
+		mHead = 0;
+		mTail = count;
+		for (int i = 0; i < count; i++) {
+			if (mViews[i] != null) {
+				mSlots.get(mViews[i])[0] = i;
+			}
+		}
+	}
+
+////=========================================================================================
+//// Frames
+////=========================================================================================
+
+	/**
+	 * Requests a frame to bind queued rows in, unless one is already pending.
+	 */
+	private void schedule() {
+		if (mScheduled) {
+			return;
+		}
+		mScheduled = true;
+		if (mVsync != null) {
+			mVsync.post();
+		} else {
+			mListView.post(this);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		bindFrame();
+	}
+
+	/**
+	 * Binds queued rows until the frame's budget is spent, and schedules another frame for the rest.
+	 */
+	private void bindFrame() {
+		mScheduled = false;
+		final long start = System.nanoTime();
+		while (mHead < mTail) {
+			final View view = mViews[mHead];
+			final int position = mPositions[mHead];
+			mViews[mHead] = null;
+			mHead++;
+			if (view == null) {
+				continue;
+			}
+			mSlots.remove(view);
+			// A View that left the list since it was queued isn't worth binding.
+			if (view.getParent() != mListView) {
+				continue;
+			}
+			mListView.bindDeferredRow(view, position);
+			if (System.nanoTime() - start >= mBudgetNanos) {
+				break;
+			}
+		}
+		if (mHead == mTail) {
+			mHead = 0;
+			mTail = 0;
+		} else {
+			schedule();
+		}
+	}
+
+	/**
+	 * Drives a DeferredBinder from vsync. Only loaded on JELLY_BEAN and above.
+	 * @author jmhend
+	 *
+	 */
+	private static class VsyncCallback implements Choreographer.FrameCallback {
+		private final DeferredBinder binder;
+
+		private VsyncCallback(DeferredBinder binder) {
+			this.binder = binder;
+		}
+
+		private void post() {
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+
+		private void cancel() {
+			Choreographer.getInstance().removeFrameCallback(this);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see android.view.Choreographer.FrameCallback#doFrame(long)
+		 */
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			binder.bindFrame();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package me.jmhend.PinchListView;
+
+import me.jmhend.PinchListView.PinchListView.DetailLevel;
+import android.view.View;
+
+/**
+ * A PinchAdapter that binds its rows in detail only when they're tall enough to see it.
+ *
+ * getView() binds what every row needs, whatever its height, then calls 
+ * PinchListView.adjustCellHeight(), which calls onBindDetailLevel() with the row's 
+ * current DetailLevel. As a pinch carries the rows across a level boundary, 
+ * PinchListView calls onBindDetailLevel() again on each visible pinchable row,
+ * so a collapsed list scrolls without paying for a full bind per row.
+ *
+ * @author jmhend
+ *
+ */
+public interface DetailLevelAdapter extends PinchAdapter {
+
+	/**
+	 * Binds the row View at 'position' for 'level', e.g. a cheap placeholder while COLLAPSED
+	 * and its full content once TRANSITIONING or EXPANDED.
+	 *
+	 * @param view
+	 * @param position
+	 * @param level
+	 */
+	public void onBindDetailLevel(View view, int position, DetailLevel level);
+}
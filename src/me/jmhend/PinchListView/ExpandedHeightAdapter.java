@@ -0,0 +1,22 @@
+package me.jmhend.PinchListView;
+
+/**
+ * A PinchAdapter whose rows each have their own expanded height.
+ *
+ * PinchListView caches each measurement, keyed by the row's item id when the adapter
+ * has stable ids and by position otherwise, so a row is measured once rather than on every bind.
+ *
+ * @author jmhend
+ *
+ */
+public interface ExpandedHeightAdapter extends PinchAdapter {
+
+	/**
+	 * Measures the height, in pixels, of the row at 'position' when it's fully expanded.
+	 * Pinchable rows scale between the collapsed height and this height.
+	 *
+	 * @param position
+	 * @return
+	 */
+	public int measureExpandedHeight(int position);
+}
@@ -0,0 +1,153 @@
+package me.jmhend.PinchListView;
+
+import me.jmhend.PinchListView.core.GestureTrace;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+/**
+ * Replays a GestureTrace as MotionEvents, with the recorded timestamps, pointer ids
+ * and coordinates, so a recorded pinch drives the scale gesture identically every time.
+ *
+ * PinchListView records traces with startGestureRecording().
+ *
+ * @author jmhend
+ *
+ */
+public class GestureReplayer {
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final GestureTrace mTrace;
+	private int mNextEvent;
+
+	private MotionEvent.PointerProperties[] mProperties = new MotionEvent.PointerProperties[0];
+	private MotionEvent.PointerCoords[] mCoords = new MotionEvent.PointerCoords[0];
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param trace
+	 */
+	public GestureReplayer(GestureTrace trace) {
+		mTrace = trace;
+	}
+
+////=========================================================================================
+//// Replay
+////=========================================================================================
+
+	/**
+	 * @return True if there are events left to replay.
+	 */
+	public boolean hasNext() {
+		return mNextEvent < mTrace.getEventCount();
+	}
+
+	/**
+	 * Starts replaying from the first event again.
+	 */
+	public void rewind() {
+		mNextEvent = 0;
+	}
+
+	/**
+	 * Feeds the next event to 'detector'.
+	 * @param detector
+	 */
+	public void replayNext(IScaleGestureDetector detector) {
+		final MotionEvent event = obtainEvent(mNextEvent++);
+		detector.onTouchEvent(event);
+		event.recycle();
+	}
+
+	/**
+	 * Feeds every remaining event to 'detector'.
+	 * @param detector
+	 */
+	public void replay(IScaleGestureDetector detector) {
+		while (hasNext()) {
+			replayNext(detector);
+		}
+	}
+
+	/**
+	 * Builds the MotionEvent recorded at 'index', with its batched history.
+	 * The caller recycles it.
+	 * @param index
+	 * @return
+	 */
+	public MotionEvent obtainEvent(int index) {
+		final GestureTrace trace = mTrace;
+		final int pointerCount = trace.getPointerCount(index);
+		ensurePointers(pointerCount);
+		for (int p = 0; p < pointerCount; p++) {
+			mProperties[p].id = trace.getPointerId(index, p);
+			mProperties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+		}
+
+		final int sampleCount = trace.getSampleCount(index);
+		setCoords(index, 0, pointerCount);
+		final MotionEvent event = MotionEvent.obtain(trace.getDownTime(index), trace.getSampleTime(index, 0),
+				trace.getAction(index), pointerCount, mProperties, mCoords, 0, 0, 1.0f, 1.0f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+		for (int s = 1; s < sampleCount; s++) {
+			setCoords(index, s, pointerCount);
+			event.addBatch(trace.getSampleTime(index, s), mCoords, 0);
+		}
+		return event;
+	}
+
+	private void setCoords(int index, int sample, int pointerCount) {
+		for (int p = 0; p < pointerCount; p++) {
+			final MotionEvent.PointerCoords coords = mCoords[p];
+			coords.clear();
+			coords.x = mTrace.getX(index, sample, p);
+			coords.y = mTrace.getY(index, sample, p);
+			coords.pressure = 1.0f;
+			coords.size = 1.0f;
+		}
+	}
+
+	private void ensurePointers(int pointerCount) {
+		if (mProperties.length >= pointerCount) {
+			return;
+		}
+		mProperties = new MotionEvent.PointerProperties[pointerCount];
+		mCoords = new MotionEvent.PointerCoords[pointerCount];
+		for (int p = 0; p < pointerCount; p++) {
+			mProperties[p] = new MotionEvent.PointerProperties();
+			mCoords[p] = new MotionEvent.PointerCoords();
+		}
+	}
+
+////=========================================================================================
+//// Recording
+////=========================================================================================
+
+	/**
+	 * Appends 'event', with its batched history, to 'trace'.
+	 * @param trace
+	 * @param event
+	 */
+	public static void record(GestureTrace trace, MotionEvent event) {
+		final int pointerCount = event.getPointerCount();
+		final int historySize = event.getHistorySize();
+		final int index = trace.addEvent(event.getAction(), event.getDownTime(), pointerCount, historySize + 1);
+		for (int p = 0; p < pointerCount; p++) {
+			trace.setPointerId(index, p, event.getPointerId(p));
+		}
+		for (int h = 0; h < historySize; h++) {
+			trace.setSampleTime(index, h, event.getHistoricalEventTime(h));
+			for (int p = 0; p < pointerCount; p++) {
+				trace.setCoords(index, h, p, event.getHistoricalX(p, h), event.getHistoricalY(p, h));
+			}
+		}
+		trace.setSampleTime(index, historySize, event.getEventTime());
+		for (int p = 0; p < pointerCount; p++) {
+			trace.setCoords(index, historySize, p, event.getX(p), event.getY(p));
+		}
+	}
+}
@@ -2,17 +2,15 @@ package me.jmhend.PinchListView;
 
 import me.jmhend.PinchListView.SupportScaleGestureDetector.OnSupportScaleGestureListener;
 import android.content.Context;
-import android.os.Build;
 import android.view.MotionEvent;
-import android.view.ScaleGestureDetector;
-import android.view.ScaleGestureDetector.OnScaleGestureListener;
 
 /**
- * Interface for abstracting away ScaleGestureDetector.
+ * Wraps the library's SupportScaleGestureDetector, on every API level, so
+ * scale gestures behave, and replay, the same everywhere.
  * 
  * @author jmhend
  */
-public class IScaleGestureDetector implements OnScaleGestureListener, OnSupportScaleGestureListener {
+public class IScaleGestureDetector implements OnSupportScaleGestureListener {
 	
 	private static final String TAG = IScaleGestureDetector.class.getSimpleName();
 	
@@ -20,12 +18,9 @@ public class IScaleGestureDetector implements OnScaleGestureListener, OnSupportS
 //// Member variables.
 ////=========================================================================================
 	
-	private ScaleGestureDetector mScaleGestureDetector;
 	private SupportScaleGestureDetector mSupportScaleGestureDetector;
 	private IOnScaleGestureListener mListener;
 	
-	private boolean mUseSupport;
-	
 ////=========================================================================================
 //// Abstractions
 ////=========================================================================================
@@ -36,71 +31,73 @@ public class IScaleGestureDetector implements OnScaleGestureListener, OnSupportS
 	 */
 	public IScaleGestureDetector(Context context, IOnScaleGestureListener listener) {
 		mListener = listener;
-		mUseSupport = Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN;
-		
-		if (useSupport()) {
-			mSupportScaleGestureDetector = new SupportScaleGestureDetector(context, this);
-		} else {
-			mScaleGestureDetector = new ScaleGestureDetector(context, this);
-		}
+		mSupportScaleGestureDetector = new SupportScaleGestureDetector(context, this);
 	}
 	
 	/**
-	 * Direct the MotionEvent to the correct ScaleGestureDetector.
+	 * Direct the MotionEvent to the ScaleGestureDetector.
 	 * @param event
 	 * @return
 	 */
 	public boolean onTouchEvent(MotionEvent event) {
-		if (useSupport()) {
-			return mSupportScaleGestureDetector.onTouchEvent(event);
-		} else {
-			return mScaleGestureDetector.onTouchEvent(event);
-		}
+		return mSupportScaleGestureDetector.onTouchEvent(event);
 	}
 	
 	/**
 	 * @return The ScaleGestureDetector's scaleFactor.
 	 */
 	public float getScaleFactor() {
-		if (useSupport()) {
-			return mSupportScaleGestureDetector.getScaleFactor();
-		} else {
-			return mScaleGestureDetector.getScaleFactor();
-		}
+		return mSupportScaleGestureDetector.getScaleFactor();
 	}
 	
 	/**
 	 * @return The Y coordinate of the pinch's focal point.
 	 */
 	public float getFocusY() {
-		if (useSupport()) {
-			return mSupportScaleGestureDetector.getFocusY();
-		} else {
-			return mScaleGestureDetector.getFocusY();
-		}
+		return mSupportScaleGestureDetector.getFocusY();
 	}
 	
 	/**
-	 * @return True if a scale gesture is in Progress.
+	 * @return The average distance, in pixels, between the pointers forming the gesture.
 	 */
-	public boolean isInProgress() {
-		if (useSupport()) {
-			return mSupportScaleGestureDetector.isInProgress();
-		} else {
-			return mScaleGestureDetector.isInProgress();
-		}
+	public float getCurrentSpan() {
+		return mSupportScaleGestureDetector.getCurrentSpan();
 	}
 	
+	/**
+	 * @return The average distance, in pixels, between the pointers at the previous scale event.
+	 */
+	public float getPreviousSpan() {
+		return mSupportScaleGestureDetector.getPreviousSpan();
+	}
 	
-////=========================================================================================
-//// Versioning
-////=========================================================================================
+	/**
+	 * @return Time, in milliseconds, between the previous and current scale events.
+	 */
+	public long getTimeDelta() {
+		return mSupportScaleGestureDetector.getTimeDelta();
+	}
+	
+	/**
+	 * @return The time, in milliseconds, of the latest event the detector processed.
+	 */
+	public long getEventTime() {
+		return mSupportScaleGestureDetector.getEventTime();
+	}
 	
 	/**
-	 * @return If the SupportScaleGestureDetector should be used.
+	 * @return The smoothed rate, in pixels per second, at which the span is changing.
+	 * Positive while the pointers spread apart. Zero once the pointers come to rest.
 	 */
-	private boolean useSupport() {
-		return mUseSupport;
+	public float getSpanVelocity() {
+		return mSupportScaleGestureDetector.getSpanVelocity();
+	}
+	
+	/**
+	 * @return True if a scale gesture is in Progress.
+	 */
+	public boolean isInProgress() {
+		return mSupportScaleGestureDetector.isInProgress();
 	}
 	
 	
@@ -158,32 +155,5 @@ public class IScaleGestureDetector implements OnScaleGestureListener, OnSupportS
 	public void onScaleEnd(SupportScaleGestureDetector detector) {
 		mListener.onScaleEnd(this);
 	}
-	
-	/*
-	 * (non-Javadoc)
-	 * @see android.view.ScaleGestureDetector.OnScaleGestureListener#onScale(android.view.ScaleGestureDetector)
-	 */
-	@Override
-	public boolean onScale(ScaleGestureDetector detector) {
-		return mListener.onScale(this);
-	}
-	
-	/*
-	 * (non-Javadoc)
-	 * @see android.view.ScaleGestureDetector.OnScaleGestureListener#onScaleBegin(android.view.ScaleGestureDetector)
-	 */
-	@Override
-	public boolean onScaleBegin(ScaleGestureDetector detector) {
-		return mListener.onScaleBegin(this);
-	}
-	
-	/*
-	 * (non-Javadoc)
-	 * @see android.view.ScaleGestureDetector.OnScaleGestureListener#onScaleEnd(android.view.ScaleGestureDetector)
-	 */
-	@Override
-	public void onScaleEnd(ScaleGestureDetector detector) {
-		mListener.onScaleEnd(this);
-	}
 
 }
@@ -4,8 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import me.jmhend.PinchListView.R;
-import me.jmhend.PinchListView.PinchListView.OnItemPinchListener;
-import me.jmhend.PinchListView.PinchListView.PinchState;
+import me.jmhend.PinchListView.PinchListView.DetailLevel;
+import me.jmhend.PinchListView.PinchListView.OnPinchFrameListener;
+import me.jmhend.PinchListView.PinchListView.PinchFrame;
 import android.app.Activity;
 import android.content.Context;
 import android.os.Bundle;
@@ -15,7 +16,6 @@ import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemClickListener;
 import android.widget.ArrayAdapter;
-import android.widget.ListView;
 import android.widget.TextView;
 
 /**
@@ -59,18 +59,31 @@ public class MainActivity extends Activity {
 		mListAdapter = new SimplePinchAdapter(mListView, this, pinchItems);
 		mListView.setAdapter(mListAdapter);
 		
-		// Add an OnItemPinchListener 
-		mListView.addOnItemPinchListener(new OnItemPinchListener() {
+		// Draw runs of collapsed rows as single strips, tinted like the pinchable rows.
+		mListView.setCollapsedRunColor(SimplePinchAdapter.PINCHABLE_COLOR);
+		mListView.setCollapsedRunsEnabled(true);
+		
+		// Spread the text binds of rows that come into view while expanding across frames.
+		mListView.setDeferredBindingEnabled(true);
+		
+		// Bind the rows a settle will bring into view while the main thread is idle.
+		mListView.setSettlePrefetchEnabled(true);
+		
+		// Add an OnPinchFrameListener, called back on every 5% change in height.
+		mListView.addOnPinchFrameListener(new OnPinchFrameListener() {
 			/*
 			 * (non-Javadoc)
-			 * @see me.jmhend.ui.pinchlist.PinchListView.OnItemPinchedListener#onViewPinched(me.jmhend.ui.pinchlist.PinchListView, android.view.View, int, float)
+			 * @see me.jmhend.PinchListView.PinchListView.OnPinchFrameListener#onPinchFrame(me.jmhend.PinchListView.PinchListView, int, float, me.jmhend.PinchListView.PinchListView.PinchFrame)
 			 */
 			@Override
-			public void onItemPinch(PinchListView listView, View view, int newHeight, float heightPercent) { 
+			public void onPinchFrame(PinchListView listView, int newHeight, float heightPercent, PinchFrame frame) { 
 				// Adjust the TextView alpha based on how the cells have been pinched.
-				((TextView) view.findViewById(R.id.text)).setAlpha(heightPercent);
+				final int count = frame.getCount();
+				for (int i = 0; i < count; i++) {
+					((SimplePinchAdapter.ViewHolder) frame.getView(i).getTag()).textView.setAlpha(heightPercent);
+				}
 			}
-		});
+		}, 0.05f, 0);
 		
 		mListView.setOnItemClickListener(new OnItemClickListener() {
 			/*
@@ -79,7 +92,8 @@ public class MainActivity extends Activity {
 			 */
 			@Override
 			public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-				((ListView) parent).smoothScrollToPosition(30);
+				// List positions cover whole strips while collapsed, so scroll by row offset.
+				((PinchListView) parent).smoothScrollToRow(30, 0, 300);
 			}
 			
 		});
@@ -114,7 +128,7 @@ public class MainActivity extends Activity {
 	 * 
 	 * @author jmhend
 	 */
-	private static class SimplePinchAdapter extends ArrayAdapter<PinchItem> implements PinchAdapter {
+	private static class SimplePinchAdapter extends ArrayAdapter<PinchItem> implements DetailLevelAdapter {
 		
 		private static final int PINCHABLE_COLOR = 0x22006622;
 		private static final int NONPINCHABLE_COLOR = 0x22FFFFFF;
@@ -160,25 +174,43 @@ public class MainActivity extends Activity {
 				holder = (ViewHolder) convertView.getTag();
 			}
 			
-			final PinchItem pinch = mPinches.get(position);
-			
-			// Set the alpha of the cell's TextView based upon the state of the pinched items.
-			boolean isCollapsed = isRowPinchable(position) && mListView.getPinchState() == PinchState.COLLAPSED;
-			holder.textView.setAlpha(isCollapsed ? 0.0f : 1.0f);
-			holder.textView.setText(pinch.text);
+			// Ask the PinchListView, which answers from its cached index.
+			final boolean isPinchable = mListView.isRowPinchable(position);
 
-			// Set the background color of pinchable cells.
-			final int background = (isRowPinchable(position)) ? PINCHABLE_COLOR : NONPINCHABLE_COLOR;
+			// Set the background color of pinchable cells. Every row needs this, however small.
+			final int background = isPinchable ? PINCHABLE_COLOR : NONPINCHABLE_COLOR;
 			convertView.setBackgroundColor(background);
 			
 			// REQUIRED.
-			// Handles setting the height of each cell correctly.
+			// Handles setting the height of each cell correctly, 
+			// then calls onBindDetailLevel() to bind the rest.
 			// Call this right before returning.
 			mListView.adjustCellHeight(convertView, position);
 			
 			return convertView;
 		}
 		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.DetailLevelAdapter#onBindDetailLevel(android.view.View, int, me.jmhend.PinchListView.PinchListView.DetailLevel)
+		 */
+		@Override
+		public void onBindDetailLevel(View view, int position, DetailLevel level) {
+			final ViewHolder holder = (ViewHolder) view.getTag();
+			
+			// Collapsed rows are too small to show text, so skip binding it.
+			if (level == DetailLevel.COLLAPSED) {
+				holder.textView.setAlpha(0.0f);
+				holder.textView.setText(null);
+				return;
+			}
+			
+			// Set the alpha of the cell's TextView based upon how far the pinched items are expanded.
+			final boolean isPinchable = mListView.isRowPinchable(position);
+			holder.textView.setAlpha(isPinchable && level == DetailLevel.TRANSITIONING ? mListView.getCellHeightPercentage() : 1.0f);
+			holder.textView.setText(mPinches.get(position).text);
+		}
+		
 		private static final class ViewHolder {
 			private TextView textView;
 		}
@@ -1,5 +1,7 @@
 package me.jmhend.PinchListView;
 
+import me.jmhend.PinchListView.core.RowPinchability;
+
 /**
  * Interface for a ListAdapter to implement.
  * Tells the PinchListView which rows to manipulate.
@@ -7,7 +9,7 @@ package me.jmhend.PinchListView;
  * @author jmhend
  *
  */
-public interface PinchAdapter {
+public interface PinchAdapter extends RowPinchability {
 
 	/**
 	 * True if the child View at 'position' is pinchable.
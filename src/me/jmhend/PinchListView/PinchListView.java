@@ -2,20 +2,29 @@ package me.jmhend.PinchListView;
 
 
 import java.util.ArrayList;
-import java.util.List;
 
-import junit.framework.Assert;
 import me.jmhend.PinchListView.IScaleGestureDetector.IOnScaleGestureListener;
+import me.jmhend.PinchListView.core.AnchorResolver;
+import me.jmhend.PinchListView.core.ExpandedHeightCache;
+import me.jmhend.PinchListView.core.GestureTrace;
+import me.jmhend.PinchListView.core.PinchDispatcher;
+import me.jmhend.PinchListView.core.PinchLevels;
+import me.jmhend.PinchListView.core.PinchMath;
+import me.jmhend.PinchListView.core.PinchabilityIndex;
+import me.jmhend.PinchListView.core.RowGeometry;
+import me.jmhend.PinchListView.core.RowOffsetIndex;
 import android.content.Context;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
 import android.os.Build;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.Animation;
-import android.view.animation.Animation.AnimationListener;
-import android.view.animation.Transformation;
+import android.widget.AdapterView;
 import android.widget.FrameLayout;
 import android.widget.ListAdapter;
 import android.widget.ListView;
@@ -40,6 +49,16 @@ public class PinchListView extends ListView  {
 	
 	private static final int DEFAULT_GROUPING_VICINITY = DEFAULT_HEIGHT_EXPANDED_DP / 3;
 	
+	/**
+	 * Fraction of the way from collapsed to expanded at which pinchable rows leave DetailLevel.COLLAPSED.
+	 */
+	private static final float DEFAULT_DETAIL_LEVEL_THRESHOLD = 0.25f;
+	
+	/**
+	 * Rows of the row offset index built per frame while the scrollbar waits on it.
+	 */
+	private static final int ROW_OFFSET_BUILD_STEP = 4096;
+	
 ////=========================================================================================
 //// PinchState
 ////=========================================================================================
@@ -54,6 +73,57 @@ public class PinchListView extends ListView  {
 		COLLAPSED,
 		EXPANDING,
 		EXPANDED,
+		/**
+		 * Resting on a pinch level between COLLAPSED and EXPANDED.
+		 */
+		INTERMEDIATE,
+	}
+	
+////=========================================================================================
+//// DetailLevel
+////=========================================================================================
+	
+	/**
+	 * How much of a row is worth binding at its current height. See DetailLevelAdapter.
+	 * @author jmhend
+	 *
+	 */
+	public static enum DetailLevel {
+		/**
+		 * Below the detail level threshold; too small to show content.
+		 */
+		COLLAPSED,
+		/**
+		 * Past the detail level threshold, but not fully expanded.
+		 */
+		TRANSITIONING,
+		/**
+		 * Fully expanded, or not pinchable.
+		 */
+		EXPANDED,
+	}
+	
+////=========================================================================================
+//// PinchMode
+////=========================================================================================
+	
+	/**
+	 * Describes how pinch frames are applied to the pinchable cells.
+	 * @author jmhend
+	 *
+	 */
+	public static enum PinchMode {
+		/**
+		 * Every pinch frame changes the cells' LayoutParams and lays the list out.
+		 */
+		LAYOUT,
+		/**
+		 * Pinch frames that grow the cells past the height they're laid out at translate and 
+		 * scale them at draw time, and LayoutParams are only committed once the pinch settles.
+		 * Frames that shrink the cells are laid out as in LAYOUT, since scaling would leave
+		 * the space that rows scroll into blank, so collapsing gains nothing from this mode.
+		 */
+		TRANSFORM,
 	}
 	
 ////=========================================================================================
@@ -61,18 +131,194 @@ public class PinchListView extends ListView  {
 ////=========================================================================================
 	
 	private PinchHandler mPinchHandler;
+	private PinchAnimation mPinchAnimation;
 	private IScaleGestureDetector mScaleDetector;
 	private PinchAdapter mPinchAdapter;
-	private List<OnItemPinchListener> mPinchListeners = new ArrayList<OnItemPinchListener>();
+	private ExpandedHeightAdapter mExpandedHeightAdapter;
+	private DetailLevelAdapter mDetailLevelAdapter;
+	private DetailLevel mDetailLevel;
+	private float mDetailLevelThreshold = DEFAULT_DETAIL_LEVEL_THRESHOLD;
+	private DeferredBinder mDeferredBinder;
+	private RowPrefetcher mRowPrefetcher;
+	private boolean mSettlePrefetch = false;
+	private boolean mDeferredBinding = false;
+	private ListAdapter mAdapter;
+	private CollapsedRunAdapter mRunAdapter;
+	private boolean mCollapsedRuns = false;
+	private int mCollapsedRunColor = 0;
+	private int mLastDownY;
+	private final Runnable mCollapseRunsRunnable = new Runnable() {
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			if (shouldCollapseRuns()) {
+				setRunsCollapsed(true);
+			}
+		}
+	};
+	private final ExpandedHeightCache mExpandedHeights = new ExpandedHeightCache();
+	private final PinchabilityIndex mPinchabilityIndex = new PinchabilityIndex();
+	private final DataSetObserver mPinchabilityObserver = new DataSetObserver() {
+		/*
+		 * (non-Javadoc)
+		 * @see android.database.DataSetObserver#onChanged()
+		 */
+		@Override
+		public void onChanged() {
+			mPinchabilityIndex.invalidateAll(mAdapter.getCount());
+			if (!mAdapter.hasStableIds()) {
+				mExpandedHeights.clear();
+			}
+			mRowOffsets.invalidate();
+			mDeferredBinder.clear();
+			mRowPrefetcher.clear();
+			if (mRunAdapter != null) {
+				mRunAdapter.onAdapterChanged();
+			}
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see android.database.DataSetObserver#onInvalidated()
+		 */
+		@Override
+		public void onInvalidated() {
+			mPinchabilityIndex.invalidateAll(mAdapter.getCount());
+			mExpandedHeights.clear();
+			mRowOffsets.invalidate();
+			mDeferredBinder.clear();
+			mRowPrefetcher.clear();
+			if (mRunAdapter != null) {
+				mRunAdapter.onAdapterInvalidated();
+			}
+		}
+	};
+	private final RowOffsetIndex mRowOffsets = new RowOffsetIndex(new RowOffsetIndex.RowSource() {
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.RowOffsetIndex.RowSource#getRowCount()
+		 */
+		@Override
+		public int getRowCount() {
+			return mAdapter == null ? 0 : mAdapter.getCount();
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.RowOffsetIndex.RowSource#isRowPinchable(int)
+		 */
+		@Override
+		public boolean isRowPinchable(int position) {
+			return mPinchable && PinchListView.this.isRowPinchable(position);
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.RowOffsetIndex.RowSource#getExpandedRowHeight(int)
+		 */
+		@Override
+		public int getExpandedRowHeight(int position) {
+			// Never measure here; rows are re-indexed as they get measured.
+			return getKnownExpandedHeight(position);
+		}
+	});
+	private final Runnable mBuildRowOffsetsRunnable = new Runnable() {
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			if (rowOffsets().build(ROW_OFFSET_BUILD_STEP)) {
+				// The scrollbar switches to exact offsets on the next draw.
+				invalidate();
+			} else {
+				post(this);
+			}
+		}
+	};
+	private final ArrayList<View> mHeaderViews = new ArrayList<View>();
+	private final ArrayList<View> mFooterViews = new ArrayList<View>();
+	private final PinchListenerDispatcher mPinchDispatcher = new PinchListenerDispatcher();
+	private final PinchFrame mPinchFrame = new PinchFrame(mPinchDispatcher.getFrame());
 	private OnPinchCompleteListener mPinchCompleteListener;
 	
+	private final PinchStats mPinchStats = new PinchStats();
+	private boolean mPinchStatsEnabled = false;
+	private OnPinchStatsListener mPinchStatsListener;
+	
 	private int mExpandedHeight;
 	private int mCollapsedHeight;
+	private PinchLevels mPinchLevels;
 	private int mPinchHeight;
 	private int mGroupingVicinityThreshold;
 	
 	private boolean mLockListView = false;
+	private GestureTrace mGestureTrace;
 	private boolean mPinchable = true;
+	
+	private boolean mBatchPinchLayout = true;
+	private boolean mTouchPrediction = false;
+	private boolean mPinchLayoutPending = false;
+	private boolean mPinchDispatchPending = false;
+	private int mPinchDispatchHeight;
+	private int[] mFrameHeights = new int[0];
+	private int mFrameFirstPosition;
+	private int mFrameHeightCount;
+	
+	private boolean mAnchorPinPending = false;
+	private int mPinnedAnchorPosition;
+	private int mPinnedAnchorTop;
+	
+	private PinchMode mPinchMode = PinchMode.LAYOUT;
+	private boolean mTransformActive = false;
+	private int mTransformHeight;
+	private int mLayoutPinchHeight;
+	private int[] mTransformTops = new int[0];
+	private float[] mTransformScales = new float[0];
+	private int mTransformChildCount;
+	private int mDrawCursor;
+	
+	private final int[] mPredictedRange = new int[2];
+	
+	private int[] mChildTops = new int[0];
+	private int[] mChildHeights = new int[0];
+	private int mChildGeometryCount = -1;
+	private int mChildGeometryFirstPosition;
+	private int mChildGeometryOrigin;
+	private View mChildGeometryFirstChild;
+	private View mChildGeometryLastChild;
+	private final RowGeometry mChildGeometry = new RowGeometry() {
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.RowGeometry#getRowCount()
+		 */
+		@Override
+		public int getRowCount() {
+			return mChildGeometryCount;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.RowGeometry#getRowTop(int)
+		 */
+		@Override
+		public int getRowTop(int index) {
+			return mChildTops[index];
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.RowGeometry#getRowHeight(int)
+		 */
+		@Override
+		public int getRowHeight(int index) {
+			return mChildHeights[index];
+		}
+	};
 
 ////=========================================================================================
 //// Constructor.
@@ -115,9 +361,15 @@ public class PinchListView extends ListView  {
 	private void init() {
 		mExpandedHeight = PinchUtils.dpToPx(DEFAULT_HEIGHT_EXPANDED_DP, getContext());
 		mCollapsedHeight = PinchUtils.dpToPx(DEFAULT_HEIGHT_COLLAPSED_DP, getContext());
+		mPinchLevels = new PinchLevels(mCollapsedHeight, mExpandedHeight);
 		mGroupingVicinityThreshold = PinchUtils.dpToPx(DEFAULT_GROUPING_VICINITY, getContext());
 		mPinchHeight = mCollapsedHeight;
+		mLayoutPinchHeight = mPinchHeight;
+		mDetailLevel = getDetailLevel(mPinchHeight);
 		mPinchHandler = new PinchHandler();
+		mPinchAnimation = new PinchAnimation(this);
+		mDeferredBinder = new DeferredBinder(this);
+		mRowPrefetcher = new RowPrefetcher(this);
 		mScaleDetector = new IScaleGestureDetector(getContext(), mPinchHandler);
 	}
 	
@@ -134,250 +386,1430 @@ public class PinchListView extends ListView  {
 		if (!(adapter instanceof PinchAdapter)) {
 			throw new IllegalArgumentException("Cannot use PinchListView with " + adapter.getClass().getCanonicalName() + "!");
 		}
-		mPinchAdapter = (PinchAdapter) adapter;
-		super.setAdapter(adapter);
-	}
-	
-////=========================================================================================
-//// Dimensions
-////=========================================================================================
-	
-	/**
-	 * @return The current PinchState the PinchListView is in.
-	 */
-	public PinchState getPinchState() {
-		if (mPinchHeight == mCollapsedHeight) {
-			return PinchState.COLLAPSED;
-		}
-		if (mPinchHeight == mExpandedHeight) {
-			return PinchState.EXPANDED;
+		if (mAdapter != null) {
+			mAdapter.unregisterDataSetObserver(mPinchabilityObserver);
 		}
-		if (mPinchHandler.isExpanding) {
-			return PinchState.EXPANDING;
+		mPinchAdapter = (PinchAdapter) adapter;
+		mExpandedHeightAdapter = (adapter instanceof ExpandedHeightAdapter) ? (ExpandedHeightAdapter) adapter : null;
+		mDetailLevelAdapter = (adapter instanceof DetailLevelAdapter) ? (DetailLevelAdapter) adapter : null;
+		mDeferredBinder.clear();
+		mAdapter = adapter;
+		mExpandedHeights.clear();
+		mPinchabilityIndex.reset(mPinchAdapter, adapter.getCount());
+		mRowOffsets.invalidate();
+		adapter.registerDataSetObserver(mPinchabilityObserver);
+		mRowPrefetcher.clear();
+		removeCallbacks(mCollapseRunsRunnable);
+		mRunAdapter = (mCollapsedRuns || mSettlePrefetch) ? new CollapsedRunAdapter(this, adapter) : null;
+		if (mRunAdapter != null) {
+			mRunAdapter.setCollapsed(shouldCollapseRuns());
 		}
-		return PinchState.COLLAPSING;
+		super.setAdapter(mRunAdapter != null ? mRunAdapter : adapter);
 	}
 	
 	/**
-	 * @return True if the PinchListView is fully collapsed.
+	 * Answers from a cached index, so prefer this over calling
+	 * PinchAdapter.isRowPinchable() directly.
+	 * @param position
+	 * @return True if the row at adapter position 'position' is pinchable.
 	 */
-	public boolean isCollapsed() {
-		return getPinchState() == PinchState.COLLAPSED;
+	public boolean isRowPinchable(int position) {
+		return mPinchabilityIndex.isPinchable(position);
 	}
 	
 	/**
-	 * Adjusts the height of View 'view' at child index 'position'.
-	 * @param view
 	 * @param position
+	 * @param pinchable
+	 * @return The first adapter position at or after 'position' whose pinchability is 'pinchable',
+	 * or the adapter count if there's none.
 	 */
-	public void adjustCellHeight(View view, int position) {
-		final int height = (mPinchable && mPinchAdapter.isRowPinchable(position)) ? getPinchHeight() : getExpandedHeight(position);
-		ViewGroup.LayoutParams params = view.getLayoutParams();
-		if (params.height != height) {
-			params.height = height;
-			view.setLayoutParams(params);
-		}
+	int findNextRow(int position, boolean pinchable) {
+		return mPinchabilityIndex.findNext(position, pinchable);
 	}
 	
 	/**
-	 * @return True if the ListView adjusts to pinch gestures.
+	 * Tells the PinchListView that the pinchability of the row at 'position' changed
+	 * without a full data set change notification.
+	 * @param position
 	 */
-	public boolean isPinchable() {
-		return mPinchable;
+	public void invalidateRowPinchability(int position) {
+		mPinchabilityIndex.invalidate(position);
+		mRowOffsets.invalidateRow(position);
 	}
 	
+////=========================================================================================
+//// Collapsed runs
+////=========================================================================================
+	
 	/**
-	 * @param pinchable True if the ListView adjusts to pinch gestures.
+	 * @return True if runs of collapsed pinchable rows are drawn as single strips.
 	 */
-	public void setPinchable(boolean pinchable) {
-		mPinchable = pinchable;
+	public boolean isCollapsedRunsEnabled() {
+		return mCollapsedRuns;
 	}
 	
 	/**
-	 * @param context
-	 * @return the height, in pixels, of a pinchable cell when it's fully expanded.
+	 * While the list rests fully collapsed, draws each run of consecutive pinchable rows
+	 * as one lightweight strip View, rather than binding a View for every row. 
+	 * The rows are bound again as soon as a pinch or pinch animation starts.
+	 * 
+	 * While strips are showing, list positions such as getFirstVisiblePosition() cover 
+	 * whole runs; map them with getAdapterPosition(). Item click and long click listeners
+	 * receive the position of the row touched within a strip. Choice modes aren't supported.
+	 * 
+	 * Changing this resets the adapter. Off by default.
+	 * @param enabled
 	 */
-	public int getExpandedHeight(int position) {
-		return mExpandedHeight;
+	public void setCollapsedRunsEnabled(boolean enabled) {
+		if (enabled == mCollapsedRuns) {
+			return;
+		}
+		mCollapsedRuns = enabled;
+		if (mAdapter != null) {
+			setAdapter(mAdapter);
+		}
 	}
 	
 	/**
-	 * Sets the height, in pixels, of a pinchable cell when it's full expanded.
-	 * @param expandedHeight
+	 * @return The color collapsed rows are filled with in a strip.
 	 */
-	public void setExpandedHeightInPx(int expandedHeight) {
-		mExpandedHeight = expandedHeight;
-		mPinchHandler.setMaxHeight(expandedHeight);
+	public int getCollapsedRunColor() {
+		return mCollapsedRunColor;
 	}
 	
 	/**
-	 * @param context
-	 * @return the height, in pixels, of a pinchable cell when it's fully collapsed.
+	 * Strips draw each collapsed row as a rect of 'color', with the list's divider 
+	 * between rows. Transparent by default.
+	 * @param color
 	 */
-	public int getCollapsedHeight() {
-		return mCollapsedHeight;
+	public void setCollapsedRunColor(int color) {
+		mCollapsedRunColor = color;
+		if (mRunAdapter != null && mRunAdapter.isCollapsed()) {
+			invalidateViews();
+		}
 	}
 	
 	/**
-	 * Sets the height, in pixels, of a pinchable cell when it's fully collapsed.
-	 * @param collapsedHeight
+	 * @param position A list position, e.g. from getFirstVisiblePosition(), less the header count.
+	 * @return The adapter position of the first row at 'position', which only differs from 
+	 * 'position' while collapsed runs are drawn as strips.
 	 */
-	public void setCollapsedHeightInPx(int collapsedHeight) {
-		mCollapsedHeight = collapsedHeight;
+	public int getAdapterPosition(int position) {
+		if (mRunAdapter == null || position < 0 || position >= mRunAdapter.getCount()) {
+			return position;
+		}
+		return mRunAdapter.getAdapterPosition(position);
 	}
 	
 	/**
-	 * @return The current height of pinchable rows.
+	 * @return True if the list is resting collapsed, so runs can be drawn as strips.
 	 */
-	public int getPinchHeight() {
-		return mPinchHeight;
+	private boolean shouldCollapseRuns() {
+		return mCollapsedRuns && mPinchable && isCollapsed() && !mPinchAnimation.isRunning() && !mScaleDetector.isInProgress();
 	}
 	
 	/**
-	 * @param height The current height of pinchable rows.
+	 * Switches between strips and rows, keeping the row at the top of the viewport where it is.
+	 * @param collapsed
 	 */
-	public void setPinchHeight(int height) {
-		mPinchHeight = height;
+	private void setRunsCollapsed(boolean collapsed) {
+		if (mRunAdapter == null || mRunAdapter.isCollapsed() == collapsed) {
+			return;
+		}
+		final int headers = getHeaderViewsCount();
+		final int firstPosition = getFirstVisiblePosition() - headers;
+		int adapterPosition = INVALID_POSITION;
+		int top = 0;
+		if (getChildCount() > 0 && firstPosition >= 0 && firstPosition < mRunAdapter.getCount()) {
+			final View first = getChildAt(0);
+			top = first.getTop();
+			adapterPosition = mRunAdapter.getAdapterPosition(firstPosition);
+			if (first instanceof CollapsedRunAdapter.RunView) {
+				// Start from the row inside the strip at the top edge of the viewport.
+				final int row = ((CollapsedRunAdapter.RunView) first).getRowAt(getPaddingTop() - top);
+				adapterPosition += row;
+				top += row * mRunAdapter.getRowStride();
+			}
+		}
+		mRunAdapter.setCollapsed(collapsed);
+		if (adapterPosition != INVALID_POSITION) {
+			final int position = mRunAdapter.getPosition(adapterPosition);
+			top -= (adapterPosition - mRunAdapter.getAdapterPosition(position)) * mRunAdapter.getRowStride();
+			pinAnchor(position + headers, top);
+		}
 	}
 	
 	/**
-	 * @return The fraction of max height that the pinchable rows are expanded.
+	 * Binds the rows of any strips now, before a pinch or animation looks for its anchor among them.
 	 */
-	public float getCellHeightPercentage() {
-		return calculateHeightPercentage(mPinchHeight, mExpandedHeight, mCollapsedHeight);
+	private void expandCollapsedRuns() {
+		if (mRunAdapter == null || !mRunAdapter.isCollapsed()) {
+			return;
+		}
+		setRunsCollapsed(false);
+		// As AbsListView does when touched after a data change, lay out now rather than next frame.
+		if (getWidth() > 0) {
+			layoutChildren();
+		}
 	}
 	
 	/**
-	 * Sets the height of all pinchable children rows.
-	 * @param height
+	 * Re-evaluates the strips after something they depend on changed.
 	 */
-	public void setPinchableChildrenHeight(int height) {
-		mPinchHandler.setChildrenHeight(height);
+	private void refreshCollapsedRuns() {
+		if (mRunAdapter == null) {
+			return;
+		}
+		if (!shouldCollapseRuns()) {
+			setRunsCollapsed(false);
+		} else if (mRunAdapter.isCollapsed()) {
+			mRunAdapter.notifyDataSetChanged();
+		} else {
+			post(mCollapseRunsRunnable);
+		}
 	}
 	
 	/**
-	 * Calculates the percentage of total height 'height' is between
-	 * the minimum and maximum heights.
-	 * @param height
-	 * @return
+	 * Collapses runs into strips once the current layout pass has finished, if the list is still collapsed.
 	 */
-	public static float calculateHeightPercentage(int height, int max, int min) {
-		return ((float) height - min) / ((float) (max - min));
+	private void scheduleRunCollapse() {
+		if (mRunAdapter != null) {
+			removeCallbacks(mCollapseRunsRunnable);
+			post(mCollapseRunsRunnable);
+		}
 	}
 	
 	/**
-	 * Animates the PinchListView fully open.
+	 * @param view The View at 'position'.
+	 * @param position A list position.
+	 * @return The list position 'position' would have without strips; 
+	 * inside a strip, that of the row last touched.
 	 */
-	public void animateExpanded() {
-		mPinchHandler.animateExpanded();
+	private int getRowPosition(View view, int position) {
+		final int headers = getHeaderViewsCount();
+		final int runPosition = position - headers;
+		if (mRunAdapter == null || !mRunAdapter.isCollapsed() || runPosition < 0 || runPosition >= mRunAdapter.getCount()) {
+			return position;
+		}
+		int adapterPosition = mRunAdapter.getAdapterPosition(runPosition);
+		if (view instanceof CollapsedRunAdapter.RunView) {
+			adapterPosition += ((CollapsedRunAdapter.RunView) view).getRowAt(mLastDownY - view.getTop());
+		}
+		return adapterPosition + headers;
 	}
 	
-	/**
-	 * Aniamtes the PinchListView fully closed.
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.AbsListView#performItemClick(android.view.View, int, long)
 	 */
-	public void animateCollapsed() {
-		mPinchHandler.animateCollapsed();
+	@Override
+	public boolean performItemClick(View view, int position, long id) {
+		final int rowPosition = getRowPosition(view, position);
+		if (rowPosition != position) {
+			id = mAdapter.getItemId(rowPosition - getHeaderViewsCount());
+		}
+		return super.performItemClick(view, rowPosition, id);
 	}
 	
-	public void pulse() {
-		PinchAnimation.withPinchListView(PinchListView.this)
-		.fromHeight(mCollapsedHeight)
-		.toHeight(mCollapsedHeight * 3)
-		.withListener(new SimpleAnimationListener() {
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.AdapterView#setOnItemLongClickListener(android.widget.AdapterView.OnItemLongClickListener)
+	 */
+	@Override
+	public void setOnItemLongClickListener(final OnItemLongClickListener listener) {
+		if (listener == null) {
+			super.setOnItemLongClickListener(null);
+			return;
+		}
+		super.setOnItemLongClickListener(new OnItemLongClickListener() {
 			/*
 			 * (non-Javadoc)
-			 * @see android.view.animation.Animation.AnimationListener#onAnimationEnd(android.view.animation.Animation)
+			 * @see android.widget.AdapterView.OnItemLongClickListener#onItemLongClick(android.widget.AdapterView, android.view.View, int, long)
 			 */
 			@Override
-			public void onAnimationEnd(Animation animation) {
-				PinchAnimation.withPinchListView(PinchListView.this)
-				.fromHeight(mCollapsedHeight * 3)
-				.toHeight(mCollapsedHeight)
-				.withListener(new SimpleAnimationListener() {
-					/*
-					 * (non-Javadoc)
-					 * @see android.view.animation.Animation.AnimationListener#onAnimationEnd(android.view.animation.Animation)
-					 */
-					@Override
-					public void onAnimationEnd(Animation animation) {
-						PinchAnimation.withPinchListView(PinchListView.this)
-						.fromHeight(mCollapsedHeight)
-						.toHeight(mCollapsedHeight * 4)
-						.withListener(new SimpleAnimationListener() {
-							/*
-							 * (non-Javadoc)
-							 * @see android.view.animation.Animation.AnimationListener#onAnimationEnd(android.view.animation.Animation)
-							 */
-							@Override
-							public void onAnimationEnd(Animation animation) {
-								PinchAnimation.withPinchListView(PinchListView.this)
-								.fromHeight(mCollapsedHeight * 4)
-								.toHeight(mCollapsedHeight)
-								.go(100);
-							}
-						})
-						.go(80);
-					}
-				})
-				.go(100);
+			public boolean onItemLongClick(AdapterView<?> parent, View view, int position, long id) {
+				final int rowPosition = getRowPosition(view, position);
+				if (rowPosition != position) {
+					id = mAdapter.getItemId(rowPosition - getHeaderViewsCount());
+				}
+				return listener.onItemLongClick(parent, view, rowPosition, id);
 			}
-		})
-		.go(80);
+		});
 	}
 	
 ////=========================================================================================
-//// Touch Events
+//// Row offsets
 ////=========================================================================================
 	
-	/*
-	 * (non-Javadoc)
-	 * @see android.widget.AbsListView#onTouchEvent(android.view.MotionEvent)
+	/**
+	 * @return The row offset index, synced with the current pinch and divider heights.
 	 */
-	@Override
-	public boolean onTouchEvent(final MotionEvent ev) {
-		if (mPinchable) {
-			mScaleDetector.onTouchEvent(ev);
-		}
-		
-		// Lock ListView after a scale occurs until the user stops touching the screen.
-		if (!mLockListView && mScaleDetector.isInProgress()) {
-			mLockListView = true;
-		}
-		
-		// Unset 
-		switch (ev.getActionMasked()) {
-		case MotionEvent.ACTION_UP:
-		case MotionEvent.ACTION_CANCEL:
-			mLockListView = false;
-			break;
-		}
-		
-		if (interceptTouchEvent(ev)) {
-			return true;
-		}
-		
-		return super.onTouchEvent(ev);
+	private RowOffsetIndex rowOffsets() {
+		mRowOffsets.setPinchRange(mCollapsedHeight, mExpandedHeight);
+		mRowOffsets.setPinchHeight(mPinchHeight);
+		mRowOffsets.setDividerHeight(getDividerHeight());
+		return mRowOffsets;
 	}
 	
-	
 	/**
-	 * @return True if the TouchEvent should not be passed along to the super class.
+	 * O(log n), regardless of which rows have been laid out.
+	 * @param position An adapter position.
+	 * @return The content offset of the top of the row at 'position', 
+	 * with pinchable rows at the current pinch height.
 	 */
-	private boolean interceptTouchEvent(final MotionEvent ev) {
-		if (mLockListView) {
-			return true;
-		}
-		return false;
+	public int getRowOffset(int position) {
+		return rowOffsets().getOffset(position);
 	}
 	
 	/**
-	 * @return True if scroll adjust is supported.
+	 * O(log n), regardless of which rows have been laid out.
+	 * @param offset A content offset.
+	 * @return The adapter position of the row covering 'offset', or -1 if there are no rows.
 	 */
-	public static boolean supportsScrollAdjusting() {
-		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1;
+	public int getPositionAtOffset(int offset) {
+		return rowOffsets().getPositionAtOffset(offset);
 	}
 	
-////=========================================================================================
+	/**
+	 * @return The height of all adapter rows and their dividers, 
+	 * with pinchable rows at the current pinch height.
+	 */
+	public int getContentHeight() {
+		return rowOffsets().getTotalHeight();
+	}
+	
+	/**
+	 * Predicts which rows will be visible once the pinch height reaches 'pinchHeight',
+	 * if the row at 'anchorPosition' is held with its top at 'anchorTop'. O(log n).
+	 * @param anchorPosition
+	 * @param anchorTop
+	 * @param pinchHeight
+	 * @param outRange Receives the first and last visible adapter positions.
+	 */
+	private void predictVisibleRange(int anchorPosition, int anchorTop, int pinchHeight, int[] outRange) {
+		final RowOffsetIndex offsets = rowOffsets();
+		offsets.setPinchHeight(pinchHeight);
+		final int top = offsets.getOffset(anchorPosition) - anchorTop + getPaddingTop();
+		final int height = getHeight() - getPaddingTop() - getPaddingBottom();
+		outRange[0] = Math.max(offsets.getPositionAtOffset(top), 0);
+		outRange[1] = Math.max(offsets.getPositionAtOffset(top + height - 1), 0);
+		offsets.setPinchHeight(mPinchHeight);
+	}
+	
+	/**
+	 * @return True if the row offset index is built. If it isn't, it's built 
+	 * a slice per frame from now on, rather than all at once by the caller.
+	 */
+	private boolean isRowOffsetIndexBuilt() {
+		if (rowOffsets().isBuilt()) {
+			return true;
+		}
+		removeCallbacks(mBuildRowOffsetsRunnable);
+		post(mBuildRowOffsetsRunnable);
+		return false;
+	}
+	
+	/**
+	 * @param views Header or footer Views.
+	 * @param count The number of 'views', from the first, to add up.
+	 * @return The height of the first 'count' of 'views', each with the divider below it.
+	 */
+	private int getFixedViewsHeight(ArrayList<View> views, int count) {
+		int height = 0;
+		for (int i = Math.min(count, views.size()) - 1; i >= 0; i--) {
+			height += views.get(i).getHeight() + getDividerHeight();
+		}
+		return height;
+	}
+	
+	/**
+	 * @return The content offset at the top of the list's viewport, including header Views.
+	 */
+	private int getViewportOffset() {
+		if (getChildCount() == 0) {
+			return 0;
+		}
+		final int headers = getHeaderViewsCount();
+		final int position = getFirstVisiblePosition() - headers;
+		final int rows = mRunAdapter != null ? mRunAdapter.getCount() : mAdapter.getCount();
+		int offset;
+		if (position < 0) {
+			offset = getFixedViewsHeight(mHeaderViews, headers + position);
+		} else if (position >= rows) {
+			offset = getFixedViewsHeight(mHeaderViews, headers) + getContentHeight() 
+					+ getFixedViewsHeight(mFooterViews, position - rows);
+		} else {
+			offset = getFixedViewsHeight(mHeaderViews, headers) + getRowOffset(getAdapterPosition(position));
+		}
+		return offset - getChildAt(0).getTop() + getPaddingTop();
+	}
+	
+	/**
+	 * Smoothly scrolls so the top of the row at adapter position 'position' 
+	 * sits 'offset' pixels below the top of the list, using exact row offsets.
+	 * @param position
+	 * @param offset
+	 * @param duration
+	 */
+	public void smoothScrollToRow(int position, int offset, int duration) {
+		final int distance = getFixedViewsHeight(mHeaderViews, getHeaderViewsCount()) 
+				+ getRowOffset(position) - getViewportOffset() - offset;
+		if (distance != 0) {
+			smoothScrollBy(distance, duration);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.AbsListView#computeVerticalScrollRange()
+	 */
+	@Override
+	protected int computeVerticalScrollRange() {
+		if (mAdapter == null || !isRowOffsetIndexBuilt()) {
+			return super.computeVerticalScrollRange();
+		}
+		return Math.max(getFixedViewsHeight(mHeaderViews, getHeaderViewsCount()) + getContentHeight() 
+				+ getFixedViewsHeight(mFooterViews, getFooterViewsCount()) + getPaddingTop() + getPaddingBottom(), 0);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.AbsListView#computeVerticalScrollOffset()
+	 */
+	@Override
+	protected int computeVerticalScrollOffset() {
+		if (mAdapter == null || !isRowOffsetIndexBuilt()) {
+			return super.computeVerticalScrollOffset();
+		}
+		return Math.max(getViewportOffset(), 0);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.AbsListView#computeVerticalScrollExtent()
+	 */
+	@Override
+	protected int computeVerticalScrollExtent() {
+		if (mAdapter == null || !isRowOffsetIndexBuilt()) {
+			return super.computeVerticalScrollExtent();
+		}
+		return getHeight();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#addHeaderView(android.view.View, java.lang.Object, boolean)
+	 */
+	@Override
+	public void addHeaderView(View v, Object data, boolean isSelectable) {
+		super.addHeaderView(v, data, isSelectable);
+		mHeaderViews.add(v);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#removeHeaderView(android.view.View)
+	 */
+	@Override
+	public boolean removeHeaderView(View v) {
+		final boolean removed = super.removeHeaderView(v);
+		if (removed) {
+			mHeaderViews.remove(v);
+		}
+		return removed;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#addFooterView(android.view.View, java.lang.Object, boolean)
+	 */
+	@Override
+	public void addFooterView(View v, Object data, boolean isSelectable) {
+		super.addFooterView(v, data, isSelectable);
+		mFooterViews.add(v);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#removeFooterView(android.view.View)
+	 */
+	@Override
+	public boolean removeFooterView(View v) {
+		final boolean removed = super.removeFooterView(v);
+		if (removed) {
+			mFooterViews.remove(v);
+		}
+		return removed;
+	}
+	
+////=========================================================================================
+//// Dimensions
+////=========================================================================================
+	
+	/**
+	 * @return The current PinchState the PinchListView is in.
+	 */
+	public PinchState getPinchState() {
+		if (mPinchHeight == mCollapsedHeight) {
+			return PinchState.COLLAPSED;
+		}
+		if (mPinchHeight == mExpandedHeight) {
+			return PinchState.EXPANDED;
+		}
+		if (mPinchLevels.getLevel(mPinchHeight) >= 0) {
+			return PinchState.INTERMEDIATE;
+		}
+		if (mPinchHandler.isExpanding) {
+			return PinchState.EXPANDING;
+		}
+		return PinchState.COLLAPSING;
+	}
+	
+	/**
+	 * @return The pinch level the pinchable rows rest on, from 0 (collapsed) to
+	 * getPinchLevelCount() - 1 (expanded), or -1 while they're between levels.
+	 */
+	public int getPinchLevel() {
+		return mPinchLevels.getLevel(mPinchHeight);
+	}
+	
+	/**
+	 * @return The number of pinch levels; 2 unless set with setPinchLevels().
+	 */
+	public int getPinchLevelCount() {
+		return mPinchLevels.getCount();
+	}
+	
+	/**
+	 * @param level
+	 * @return The height, in pixels, of pinchable rows at pinch level 'level'.
+	 */
+	public int getPinchLevelHeight(int level) {
+		return mPinchLevels.getHeight(level);
+	}
+	
+	/**
+	 * Sets the discrete heights pinchable rows settle at, e.g. day, week and month rows
+	 * of a calendar. The first is the collapsed height and the last the expanded height.
+	 * Each level captures a release within the default snap threshold of it.
+	 * @param heightsInPx Non-negative, strictly ascending heights, at least two.
+	 * @throws IllegalArgumentException if 'heightsInPx' breaks those constraints.
+	 */
+	public void setPinchLevels(int... heightsInPx) {
+		final float[] thresholds = new float[heightsInPx.length];
+		for (int i = 0; i < thresholds.length; i++) {
+			thresholds[i] = PinchLevels.DEFAULT_SNAP_THRESHOLD;
+		}
+		setPinchLevels(heightsInPx, thresholds);
+	}
+	
+	/**
+	 * Sets the discrete heights pinchable rows settle at. The first is the collapsed height 
+	 * and the last the expanded height. The current pinch height is clamped into the new range.
+	 * <p>
+	 * Rows around the anchor are measured ahead of time at the levels either side of a pinch
+	 * only when an ExpandedHeightAdapter is set; otherwise every row shares the same heights,
+	 * and there's nothing to measure.
+	 * @param heightsInPx Non-negative, strictly ascending heights, at least two.
+	 * @param snapThresholds For each level, the fraction of the gap to a neighbouring level,
+	 * in (0, 0.5], within which a release snaps to that level whatever the pinch direction.
+	 * @throws IllegalArgumentException if either array breaks those constraints.
+	 */
+	public void setPinchLevels(int[] heightsInPx, float[] snapThresholds) {
+		mPinchLevels.set(heightsInPx, snapThresholds);
+		mCollapsedHeight = mPinchLevels.getMinHeight();
+		mExpandedHeight = mPinchLevels.getMaxHeight();
+		mPinchHandler.setHeightRange(mCollapsedHeight, mExpandedHeight);
+		mRowOffsets.invalidate();
+		clampPinchHeight();
+		refreshCollapsedRuns();
+	}
+	
+	/**
+	 * Pulls the pinch height, and the pinchable rows with it, back inside the pinch levels' range.
+	 */
+	private void clampPinchHeight() {
+		final int height = mPinchLevels.clamp(mPinchHeight);
+		if (height != mPinchHeight) {
+			setPinchHeight(height);
+			setPinchableChildrenHeight(height);
+		}
+	}
+	
+	/**
+	 * @return True if the PinchListView is fully collapsed.
+	 */
+	public boolean isCollapsed() {
+		return getPinchState() == PinchState.COLLAPSED;
+	}
+	
+	/**
+	 * Adjusts the height of View 'view' at child index 'position'.
+	 * @param view
+	 * @param position
+	 */
+	public void adjustCellHeight(View view, int position) {
+		mPinchStats.onViewBound();
+		final int height = getRowHeight(position, getPinchHeight());
+		ViewGroup.LayoutParams params = view.getLayoutParams();
+		if (params.height != height) {
+			params.height = height;
+			view.setLayoutParams(params);
+		}
+		if (mDetailLevelAdapter != null) {
+			final DetailLevel level = getRowDetailLevel(position);
+			if (level != DetailLevel.COLLAPSED && isDeferringBinds()) {
+				// Bind a shell now, and the rest once a later frame has time for it.
+				mDetailLevelAdapter.onBindDetailLevel(view, position, DetailLevel.COLLAPSED);
+				mDeferredBinder.defer(view, position);
+			} else {
+				mDeferredBinder.cancel(view);
+				mDetailLevelAdapter.onBindDetailLevel(view, position, level);
+			}
+		}
+	}
+	
+	/**
+	 * @param position
+	 * @return How much of the row at 'position' is worth binding at the height its View is drawn at.
+	 */
+	public DetailLevel getRowDetailLevel(int position) {
+		if (!mPinchable || !isRowPinchable(position)) {
+			return DetailLevel.EXPANDED;
+		}
+		return mDetailLevel;
+	}
+	
+	/**
+	 * @return The fraction of the way from collapsed to expanded at which 
+	 * pinchable rows leave DetailLevel.COLLAPSED.
+	 */
+	public float getDetailLevelThreshold() {
+		return mDetailLevelThreshold;
+	}
+	
+	/**
+	 * @param heightPercent The fraction of the way from collapsed to expanded, in [0, 1], 
+	 * at which pinchable rows leave DetailLevel.COLLAPSED. 0.25 by default.
+	 */
+	public void setDetailLevelThreshold(float heightPercent) {
+		mDetailLevelThreshold = heightPercent;
+		updateDetailLevel(mPinchHeight);
+	}
+	
+	/**
+	 * @param pinchHeight
+	 * @return The DetailLevel of pinchable rows drawn at 'pinchHeight'.
+	 */
+	private DetailLevel getDetailLevel(int pinchHeight) {
+		if (pinchHeight >= mExpandedHeight) {
+			return DetailLevel.EXPANDED;
+		}
+		if (calculateHeightPercentage(pinchHeight, mExpandedHeight, mCollapsedHeight) < mDetailLevelThreshold) {
+			return DetailLevel.COLLAPSED;
+		}
+		return DetailLevel.TRANSITIONING;
+	}
+	
+	/**
+	 * Moves the pinchable rows to the DetailLevel of 'pinchHeight', 
+	 * rebinding each visible pinchable row if that crosses a level boundary.
+	 * @param pinchHeight The height the pinchable rows are being drawn at.
+	 */
+	private void updateDetailLevel(int pinchHeight) {
+		final DetailLevel level = getDetailLevel(pinchHeight);
+		if (level == mDetailLevel) {
+			return;
+		}
+		mDetailLevel = level;
+		if (mDetailLevelAdapter == null || !mPinchable) {
+			return;
+		}
+		final int headers = getHeaderViewsCount();
+		final int firstPosition = getFirstVisiblePosition();
+		final int lastPinchablePosition = getCount() - getFooterViewsCount();
+		final int childCount = getChildCount();
+		for (int i = 0; i < childCount; i++) {
+			final View child = getChildAt(i);
+			// Header and footer views aren't the adapter's rows.
+			if (firstPosition + i < headers || firstPosition + i >= lastPinchablePosition 
+					|| child instanceof CollapsedRunAdapter.RunView) {
+				continue;
+			}
+			final int position = getAdapterPosition(firstPosition + i - headers);
+			if (!isRowPinchable(position)) {
+				continue;
+			}
+			if (level != DetailLevel.COLLAPSED && isDeferringBinds()) {
+				mDeferredBinder.defer(child, position);
+			} else {
+				mDeferredBinder.cancel(child);
+				mDetailLevelAdapter.onBindDetailLevel(child, position, level);
+			}
+		}
+	}
+	
+////=========================================================================================
+//// Prefetch
+////=========================================================================================
+	
+	/**
+	 * @return True if the rows a settle animation will bring into view are bound ahead of time.
+	 */
+	public boolean isSettlePrefetchEnabled() {
+		return mSettlePrefetch;
+	}
+	
+	/**
+	 * When a pinch is released, or an animation to a height starts, the rows that will 
+	 * be visible once it settles are predicted from the row offsets. Those not visible yet
+	 * are bound through the adapter while the main thread is idle between frames, 
+	 * up to a few dozen, and handed to the list when it lays them out.
+	 * 
+	 * Changing this resets the adapter. Off by default.
+	 * @param enabled
+	 */
+	public void setSettlePrefetchEnabled(boolean enabled) {
+		if (enabled == mSettlePrefetch) {
+			return;
+		}
+		mSettlePrefetch = enabled;
+		if (mAdapter != null) {
+			setAdapter(mAdapter);
+		}
+	}
+	
+	/**
+	 * Binds the row at adapter position 'position' into a new View, for the prefetcher.
+	 * @param position
+	 * @return The View, or null if there's no such row anymore.
+	 */
+	View prefetchRow(int position) {
+		if (mAdapter == null || position < 0 || position >= mAdapter.getCount()) {
+			return null;
+		}
+		return mAdapter.getView(position, null, this);
+	}
+	
+	/**
+	 * @param position
+	 * @return The prefetched View of the row at adapter position 'position',
+	 * brought up to the current pinch height, or null if it wasn't prefetched.
+	 */
+	View takePrefetchedRow(int position) {
+		final View view = mRowPrefetcher.take(position);
+		if (view != null) {
+			adjustCellHeight(view, position);
+		}
+		return view;
+	}
+	
+////=========================================================================================
+//// Deferred binding
+////=========================================================================================
+	
+	/**
+	 * @return True if detail binds during pinches and pinch animations are spread across frames.
+	 */
+	public boolean isDeferredBindingEnabled() {
+		return mDeferredBinding;
+	}
+	
+	/**
+	 * While a pinch or pinch animation runs, rows a DetailLevelAdapter would bind past
+	 * DetailLevel.COLLAPSED are first bound as COLLAPSED shells. Their real level is bound 
+	 * on later frames, as many per frame as fit the deferred binding budget, 
+	 * so an expand that brings dozens of rows into view doesn't bind them all in one frame. 
+	 * Off by default.
+	 * @param enabled
+	 */
+	public void setDeferredBindingEnabled(boolean enabled) {
+		mDeferredBinding = enabled;
+		if (!enabled) {
+			mDeferredBinder.clear();
+		}
+	}
+	
+	/**
+	 * @return The time, in milliseconds, spent on deferred binds per frame.
+	 */
+	public float getDeferredBindingBudgetMillis() {
+		return mDeferredBinder.getBudgetMillis();
+	}
+	
+	/**
+	 * @param budgetMillis The time spent on deferred binds per frame. 
+	 * At least one deferred row is bound per frame, however small the budget. 4ms by default.
+	 */
+	public void setDeferredBindingBudgetMillis(float budgetMillis) {
+		mDeferredBinder.setBudgetMillis(budgetMillis);
+	}
+	
+	/**
+	 * @return True if detail binds should be deferred right now.
+	 */
+	private boolean isDeferringBinds() {
+		return mDeferredBinding && (mPinchAnimation.isRunning() || mScaleDetector.isInProgress());
+	}
+	
+	/**
+	 * Binds a deferred row at its current DetailLevel.
+	 * @param view
+	 * @param position
+	 */
+	void bindDeferredRow(View view, int position) {
+		if (mDetailLevelAdapter != null) {
+			mDetailLevelAdapter.onBindDetailLevel(view, position, getRowDetailLevel(position));
+		}
+	}
+	
+	/**
+	 * @return True if the ListView adjusts to pinch gestures.
+	 */
+	public boolean isPinchable() {
+		return mPinchable;
+	}
+	
+	/**
+	 * @param pinchable True if the ListView adjusts to pinch gestures.
+	 */
+	public void setPinchable(boolean pinchable) {
+		mPinchable = pinchable;
+		mRowOffsets.invalidate();
+		refreshCollapsedRuns();
+	}
+	
+	/**
+	 * @param context
+	 * @return the height, in pixels, of a pinchable cell when it's fully expanded.
+	 */
+	public int getExpandedHeight(int position) {
+		if (mExpandedHeightAdapter == null) {
+			return mExpandedHeight;
+		}
+		final long key = getExpandedHeightKey(position);
+		int height = mExpandedHeights.get(key, -1);
+		if (height < 0) {
+			height = mExpandedHeightAdapter.measureExpandedHeight(position);
+			mExpandedHeights.put(key, height);
+			mRowOffsets.invalidateRow(position);
+		}
+		return height;
+	}
+	
+	/**
+	 * @param position
+	 * @return The cached expanded height of the row at 'position', 
+	 * or the default expanded height if it hasn't been measured.
+	 */
+	private int getKnownExpandedHeight(int position) {
+		if (mExpandedHeightAdapter == null) {
+			return mExpandedHeight;
+		}
+		return mExpandedHeights.get(getExpandedHeightKey(position), mExpandedHeight);
+	}
+	
+	/**
+	 * @param position
+	 * @return The key the expanded height of the row at 'position' is cached under.
+	 */
+	private long getExpandedHeightKey(int position) {
+		return mAdapter.hasStableIds() ? mAdapter.getItemId(position) : position;
+	}
+	
+	/**
+	 * Drops the cached expanded height of the row at 'position', so it's measured again.
+	 * @param position
+	 */
+	public void invalidateExpandedHeight(int position) {
+		if (mExpandedHeightAdapter != null) {
+			mExpandedHeights.remove(getExpandedHeightKey(position));
+			mRowOffsets.invalidateRow(position);
+		}
+	}
+	
+	/**
+	 * @param position
+	 * @return The height of the row at 'position' at the current pinch height.
+	 */
+	public int getRowHeight(int position) {
+		return getRowHeight(position, mPinchHeight);
+	}
+	
+	/**
+	 * Pinchable rows scale between the collapsed height and their own expanded height
+	 * by the same fraction 'pinchHeight' is between the collapsed and default expanded heights.
+	 * @param position
+	 * @param pinchHeight
+	 * @return The height of the row at 'position' when the pinch height is 'pinchHeight'.
+	 */
+	private int getRowHeight(int position, int pinchHeight) {
+		final int expandedHeight = getExpandedHeight(position);
+		if (!mPinchable || !isRowPinchable(position)) {
+			return expandedHeight;
+		}
+		return PinchMath.rowHeight(pinchHeight, expandedHeight, mCollapsedHeight, mExpandedHeight);
+	}
+	
+	/**
+	 * Sets the height, in pixels, of a pinchable cell when it's full expanded.
+	 * @param expandedHeight
+	 * @throws IllegalArgumentException if 'expandedHeight' isn't above the next lower pinch level.
+	 */
+	public void setExpandedHeightInPx(int expandedHeight) {
+		mPinchLevels.setMaxHeight(expandedHeight);
+		mExpandedHeight = expandedHeight;
+		mPinchHandler.setHeightRange(mCollapsedHeight, expandedHeight);
+		mRowOffsets.invalidate();
+		clampPinchHeight();
+		updateDetailLevel(mPinchHeight);
+	}
+	
+	/**
+	 * @param context
+	 * @return the height, in pixels, of a pinchable cell when it's fully collapsed.
+	 */
+	public int getCollapsedHeight() {
+		return mCollapsedHeight;
+	}
+	
+	/**
+	 * Sets the height, in pixels, of a pinchable cell when it's fully collapsed.
+	 * @param collapsedHeight
+	 * @throws IllegalArgumentException if 'collapsedHeight' is negative or isn't below the next higher pinch level.
+	 */
+	public void setCollapsedHeightInPx(int collapsedHeight) {
+		mPinchLevels.setMinHeight(collapsedHeight);
+		mCollapsedHeight = collapsedHeight;
+		mPinchHandler.setHeightRange(collapsedHeight, mExpandedHeight);
+		clampPinchHeight();
+		updateDetailLevel(mPinchHeight);
+		refreshCollapsedRuns();
+	}
+	
+	/**
+	 * @return The current height of pinchable rows.
+	 */
+	public int getPinchHeight() {
+		return mPinchHeight;
+	}
+	
+	/**
+	 * @param height The current height of pinchable rows.
+	 */
+	public void setPinchHeight(int height) {
+		mPinchHeight = height;
+	}
+	
+	/**
+	 * @return The fraction of max height that the pinchable rows are expanded.
+	 */
+	public float getCellHeightPercentage() {
+		return calculateHeightPercentage(mPinchHeight, mExpandedHeight, mCollapsedHeight);
+	}
+	
+	/**
+	 * Sets the height of all pinchable children rows.
+	 * @param height
+	 */
+	public void setPinchableChildrenHeight(int height) {
+		expandCollapsedRuns();
+		mPinchHandler.setChildrenHeight(height);
+	}
+	
+	/**
+	 * @return True if pinch frames are applied to all children in a single layout pass.
+	 */
+	public boolean isBatchedPinchLayoutEnabled() {
+		return mBatchPinchLayout;
+	}
+	
+	/**
+	 * @param enabled True to apply pinch frames to all children in a single layout pass,
+	 * false to have each pinched child request its own layout.
+	 */
+	public void setBatchedPinchLayoutEnabled(boolean enabled) {
+		mBatchPinchLayout = enabled;
+	}
+	
+	/**
+	 * @return True if pinch frames extrapolate the span to when the frame is expected on screen.
+	 */
+	public boolean isTouchPredictionEnabled() {
+		return mTouchPrediction;
+	}
+	
+	/**
+	 * Pinch updates are applied once per frame. With touch prediction, each frame's height 
+	 * is extrapolated along the span velocity to the frame's expected present time, 
+	 * which hides some of the touch-to-display latency. The settle always starts 
+	 * from the height actually pinched to.
+	 * @param enabled
+	 */
+	public void setTouchPredictionEnabled(boolean enabled) {
+		mTouchPrediction = enabled;
+	}
+	
+	/**
+	 * @return How pinch frames are applied to the pinchable cells.
+	 */
+	public PinchMode getPinchMode() {
+		return mPinchMode;
+	}
+	
+	/**
+	 * @param mode How pinch frames are applied to the pinchable cells.
+	 */
+	public void setPinchMode(PinchMode mode) {
+		if (mode != mPinchMode) {
+			commitPinchTransform();
+			mPinchMode = mode;
+		}
+	}
+	
+	/**
+	 * Calculates the percentage of total height 'height' is between
+	 * the minimum and maximum heights.
+	 * @param height
+	 * @return
+	 */
+	public static float calculateHeightPercentage(int height, int max, int min) {
+		return PinchMath.heightPercentage(height, max, min);
+	}
+	
+	/**
+	 * Animates the PinchListView fully open.
+	 */
+	public void animateExpanded() {
+		mPinchHandler.animateExpanded();
+	}
+	
+	/**
+	 * Aniamtes the PinchListView fully closed.
+	 */
+	public void animateCollapsed() {
+		mPinchHandler.animateCollapsed();
+	}
+	
+	/**
+	 * Animates the PinchListView to pinch level 'level'.
+	 * @param level
+	 */
+	public void animateToLevel(int level) {
+		mPinchHandler.animateHeightTo(mPinchLevels.getHeight(level));
+	}
+	
+	/**
+	 * Briefly pulses the collapsed cells open twice, as one continuous keyframe animation.
+	 */
+	public void pulse() {
+		PinchAnimation.withPinchListView(PinchListView.this)
+		.fromHeight(mCollapsedHeight)
+		.keyframe(mCollapsedHeight * 3, 80)
+		.keyframe(mCollapsedHeight, 100)
+		.keyframe(mCollapsedHeight * 4, 80)
+		.keyframe(mCollapsedHeight, 100)
+		.go();
+	}
+	
+////=========================================================================================
+//// Layout
+////=========================================================================================
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#layoutChildren()
+	 */
+	@Override
+	protected void layoutChildren() {
+		beginStatsWork();
+		if (mPinchLayoutPending) {
+			applyPinchFrame();
+		}
+		if (mAnchorPinPending) {
+			mAnchorPinPending = false;
+			// Lays the list out from the anchor, at its pinned top. 
+			// We're already in layout, so this doesn't request another pass.
+			setSelectionFromTop(mPinnedAnchorPosition, mPinnedAnchorTop - getPaddingTop());
+		}
+		super.layoutChildren();
+		mRowPrefetcher.onLayout();
+		cacheChildGeometry();
+		endStatsWork();
+	}
+	
+	/**
+	 * Caches each child's top, relative to the first child, and height.
+	 * Scrolling shifts all children equally, so the cache stays valid until children
+	 * are added, removed or re-laid out.
+	 */
+	private void cacheChildGeometry() {
+		final int childCount = getChildCount();
+		if (mChildTops.length < childCount) {
+			mChildTops = new int[childCount];
+			mChildHeights = new int[childCount];
+		}
+		mChildGeometryCount = childCount;
+		mChildGeometryFirstPosition = getFirstVisiblePosition();
+		mChildGeometryFirstChild = childCount > 0 ? getChildAt(0) : null;
+		mChildGeometryLastChild = childCount > 0 ? getChildAt(childCount - 1) : null;
+		final int origin = childCount > 0 ? getChildAt(0).getTop() : 0;
+		for (int i = 0; i < childCount; i++) {
+			final View child = getChildAt(i);
+			mChildTops[i] = child.getTop() - origin;
+			mChildHeights[i] = child.getHeight();
+		}
+		mChildGeometryOrigin = origin;
+	}
+	
+	/**
+	 * Makes sure the child geometry cache matches the current children, 
+	 * and updates its origin to the first child's current top.
+	 * @return False if there are no children.
+	 */
+	private boolean ensureChildGeometry() {
+		final int childCount = getChildCount();
+		if (childCount == 0) {
+			return false;
+		}
+		if (childCount != mChildGeometryCount 
+				|| getFirstVisiblePosition() != mChildGeometryFirstPosition
+				|| getChildAt(0) != mChildGeometryFirstChild
+				|| getChildAt(childCount - 1) != mChildGeometryLastChild) {
+			cacheChildGeometry();
+		}
+		mChildGeometryOrigin = getChildAt(0).getTop();
+		return true;
+	}
+	
+	/**
+	 * Lays out the next pass so that the row at 'position' has its top at 'top',
+	 * whatever the heights of the rows above it became.
+	 * @param position
+	 * @param top
+	 */
+	private void pinAnchor(int position, int top) {
+		mAnchorPinPending = true;
+		mPinnedAnchorPosition = position;
+		mPinnedAnchorTop = top;
+	}
+	
+	/**
+	 * Records the pending pinch height of the visible child at list position 'position' into the frame table.
+	 * @param position
+	 * @param height
+	 */
+	private void setFrameHeight(int position, int height) {
+		if (!mPinchLayoutPending) {
+			mPinchLayoutPending = true;
+			mFrameFirstPosition = getFirstVisiblePosition();
+			mFrameHeightCount = getChildCount();
+			if (mFrameHeights.length < mFrameHeightCount) {
+				mFrameHeights = new int[mFrameHeightCount];
+			}
+			for (int i = 0; i < mFrameHeightCount; i++) {
+				mFrameHeights[i] = -1;
+			}
+		}
+		final int index = position - mFrameFirstPosition;
+		if (index >= 0 && index < mFrameHeightCount) {
+			mFrameHeights[index] = height;
+		}
+	}
+	
+	/**
+	 * @param position A list position.
+	 * @param child
+	 * @return The height the child at 'position' will have once the pending pinch frame is laid out.
+	 */
+	private int getFrameHeight(int position, View child) {
+		if (mPinchLayoutPending) {
+			final int index = position - mFrameFirstPosition;
+			if (index >= 0 && index < mFrameHeightCount && mFrameHeights[index] >= 0) {
+				return mFrameHeights[index];
+			}
+		}
+		return child.getLayoutParams().height;
+	}
+	
+	/**
+	 * Writes the frame table into the children's LayoutParams, marking only those 
+	 * children for re-measure, so the upcoming layout pass picks them all up at once.
+	 */
+	private void applyPinchFrame() {
+		mPinchLayoutPending = false;
+		final int firstPosition = getFirstVisiblePosition();
+		final int childCount = getChildCount();
+		for (int i = 0; i < childCount; i++) {
+			final int index = firstPosition + i - mFrameFirstPosition;
+			if (index < 0 || index >= mFrameHeightCount) {
+				continue;
+			}
+			final int height = mFrameHeights[index];
+			if (height < 0) {
+				continue;
+			}
+			final View child = getChildAt(i);
+			final ViewGroup.LayoutParams params = child.getLayoutParams();
+			if (params.height != height) {
+				params.height = height;
+				child.forceLayout();
+			}
+		}
+		
+		// Listeners hear about the frame once its heights are in the LayoutParams.
+		if (mPinchDispatchPending) {
+			mPinchDispatchPending = false;
+			dispatchPinchFrame(mPinchDispatchHeight);
+		}
+	}
+	
+////=========================================================================================
+//// Transform
+////=========================================================================================
+	
+	/**
+	 * Sets the draw-time height of all visible pinchable children to 'height',
+	 * leaving their LayoutParams untouched.
+	 * @param height
+	 */
+	private void setTransformHeight(int height) {
+		if (mTransformActive && mTransformHeight == height) {
+			return;
+		}
+		mTransformActive = true;
+		mTransformHeight = height;
+		mPinchStats.onChildrenTouched(getChildCount());
+		invalidate();
+	}
+	
+	/**
+	 * Lays out the pinchable children at the current draw-time height, ending the transform.
+	 */
+	private void commitPinchTransform() {
+		if (!mTransformActive) {
+			return;
+		}
+		mTransformActive = false;
+		mPinchHandler.setChildrenLayoutHeight(mTransformHeight);
+		invalidate();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#dispatchDraw(android.graphics.Canvas)
+	 */
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		beginStatsWork();
+		if (mTransformActive) {
+			computeTransforms();
+		}
+		mDrawCursor = 0;
+		super.dispatchDraw(canvas);
+		if (mPinchStats.isRecording()) {
+			final long now = System.nanoTime();
+			mPinchStats.endWork(now);
+			mPinchStats.endFrame(now);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#drawChild(android.graphics.Canvas, android.view.View, long)
+	 */
+	@Override
+	protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+		if (!mTransformActive) {
+			return super.drawChild(canvas, child, drawingTime);
+		}
+		
+		// Children are drawn in order, so the cursor almost always hits.
+		int index = mDrawCursor;
+		if (index >= mTransformChildCount || getChildAt(index) != child) {
+			index = indexOfChild(child);
+		}
+		mDrawCursor = index + 1;
+		if (index < 0 || index >= mTransformChildCount) {
+			return super.drawChild(canvas, child, drawingTime);
+		}
+		
+		final float scale = mTransformScales[index];
+		if (scale <= 0.0f) {
+			return false;
+		}
+		final int top = child.getTop();
+		final int saveCount = canvas.save();
+		canvas.translate(0, mTransformTops[index] - top);
+		canvas.scale(1.0f, scale, 0, top);
+		canvas.clipRect(child.getLeft(), top, child.getRight(), child.getBottom());
+		final boolean more = super.drawChild(canvas, child, drawingTime);
+		canvas.restoreToCount(saveCount);
+		return more;
+	}
+	
+	/**
+	 * Computes the draw-time top and vertical scale of each child, 
+	 * keeping the anchor View's top where it was laid out.
+	 */
+	private void computeTransforms() {
+		final int childCount = getChildCount();
+		if (mTransformTops.length < childCount) {
+			mTransformTops = new int[childCount];
+			mTransformScales = new float[childCount];
+		}
+		mTransformChildCount = childCount;
+		if (childCount == 0) {
+			return;
+		}
+		
+		final int headers = getHeaderViewsCount();
+		final int firstPosition = getFirstVisiblePosition();
+		final int lastPinchablePosition = getCount() - getFooterViewsCount();
+		int anchorIndex = 0;
+		
+		// Store each child's draw-time height in 'tops' for now.
+		for (int i = 0; i < childCount; i++) {
+			final View child = getChildAt(i);
+			final int listPosition = firstPosition + i;
+			final int height = child.getHeight();
+			int visualHeight = height;
+			// Header and footer views aren't the adapter's rows, and keep their height.
+			if (listPosition >= headers && listPosition < lastPinchablePosition 
+					&& isRowPinchable(listPosition - headers)) {
+				visualHeight = getRowHeight(listPosition - headers, mTransformHeight);
+			}
+			mTransformTops[i] = visualHeight;
+			mTransformScales[i] = height > 0 ? ((float) visualHeight) / height : 0.0f;
+			if (child == mPinchHandler.mAnchorView) {
+				anchorIndex = i;
+			}
+		}
+		
+		// Stack children above and below the anchor, keeping the laid out gaps between them.
+		int nextTop = getChildAt(anchorIndex).getTop();
+		for (int i = anchorIndex; i < childCount; i++) {
+			final int visualHeight = mTransformTops[i];
+			mTransformTops[i] = nextTop;
+			if (i + 1 < childCount) {
+				nextTop += visualHeight + getChildAt(i + 1).getTop() - getChildAt(i).getBottom();
+			}
+		}
+		int prevTop = mTransformTops[anchorIndex];
+		for (int i = anchorIndex - 1; i >= 0; i--) {
+			prevTop -= mTransformTops[i] + getChildAt(i + 1).getTop() - getChildAt(i).getBottom();
+			mTransformTops[i] = prevTop;
+		}
+	}
+	
+////=========================================================================================
+//// Window
+////=========================================================================================
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.ListView#onDetachedFromWindow()
+	 */
+	@Override
+	protected void onDetachedFromWindow() {
+		// Snap a running settle to its target, so its listener still hears the end.
+		mPinchAnimation.end();
+		removeCallbacks(mCollapseRunsRunnable);
+		removeCallbacks(mBuildRowOffsetsRunnable);
+		mDeferredBinder.clear();
+		mRowPrefetcher.clear();
+		mPinchHandler.cancelScaleFrame();
+		commitPinchTransform();
+		super.onDetachedFromWindow();
+	}
+	
+////=========================================================================================
+//// Touch Events
+////=========================================================================================
+	
+	/*
+	 * (non-Javadoc)
+	 * @see android.widget.AbsListView#onTouchEvent(android.view.MotionEvent)
+	 */
+	@Override
+	public boolean onTouchEvent(final MotionEvent ev) {
+		if (mGestureTrace != null) {
+			GestureReplayer.record(mGestureTrace, ev);
+		}
+		if (mPinchable) {
+			mScaleDetector.onTouchEvent(ev);
+		}
+		
+		// Lock ListView after a scale occurs until the user stops touching the screen.
+		if (!mLockListView && mScaleDetector.isInProgress()) {
+			mLockListView = true;
+		}
+		
+		// Unset 
+		switch (ev.getActionMasked()) {
+		case MotionEvent.ACTION_DOWN:
+			mLastDownY = (int) ev.getY();
+			break;
+		case MotionEvent.ACTION_UP:
+		case MotionEvent.ACTION_CANCEL:
+			mLockListView = false;
+			break;
+		}
+		
+		if (interceptTouchEvent(ev)) {
+			return true;
+		}
+		
+		return super.onTouchEvent(ev);
+	}
+	
+	
+	/**
+	 * Starts appending every MotionEvent that reaches onTouchEvent() to 'trace', 
+	 * for replaying with a GestureReplayer.
+	 * @param trace
+	 */
+	public void startGestureRecording(GestureTrace trace) {
+		mGestureTrace = trace;
+	}
+	
+	/**
+	 * Stops recording MotionEvents.
+	 * @return The trace recorded into, or null if none was.
+	 */
+	public GestureTrace stopGestureRecording() {
+		final GestureTrace trace = mGestureTrace;
+		mGestureTrace = null;
+		return trace;
+	}
+	
+	/**
+	 * @return True if MotionEvents are being recorded.
+	 */
+	public boolean isRecordingGestures() {
+		return mGestureTrace != null;
+	}
+	
+	/**
+	 * @return True if the TouchEvent should not be passed along to the super class.
+	 */
+	private boolean interceptTouchEvent(final MotionEvent ev) {
+		if (mLockListView) {
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * @return True if scroll adjust is supported.
+	 * @deprecated The pinch anchor is now held in place by the layout pass on all API levels.
+	 */
+	@Deprecated
+	public static boolean supportsScrollAdjusting() {
+		return true;
+	}
+	
+////=========================================================================================
 //// OnViewPinchedListener
 ////=========================================================================================
 	
@@ -403,7 +1835,166 @@ public class PinchListView extends ListView  {
 	 * @param listener The OnItemPinchListener to callback to.
 	 */
 	public void addOnItemPinchListener(OnItemPinchListener listener) {
-		mPinchListeners.add(listener);
+		addOnItemPinchListener(listener, 0.0f, 0);
+	}
+	
+	/**
+	 * Registers 'listener' to be called back only when the height percentage crosses into 
+	 * a new multiple of 'percentStep', and no more often than every 'minIntervalMillis'.
+	 * Reaching fully collapsed or expanded is always dispatched.
+	 * @param listener The OnItemPinchListener to callback to.
+	 * @param percentStep Quantization step, e.g. 0.1f; 0 to dispatch every change.
+	 * @param minIntervalMillis Minimum time between callbacks; 0 for no limit.
+	 */
+	public void addOnItemPinchListener(OnItemPinchListener listener, float percentStep, long minIntervalMillis) {
+		mPinchDispatcher.addListener(listener, true, percentStep, minIntervalMillis);
+	}
+	
+	/**
+	 * Safe to call while listeners are being dispatched to.
+	 * @param listener The OnItemPinchListener to stop calling back to.
+	 */
+	public void removeOnItemPinchListener(OnItemPinchListener listener) {
+		mPinchDispatcher.removeListener(listener);
+	}
+	
+	/**
+	 * Listens for pinch frames on the PinchListView, 
+	 * receiving every pinched child of a frame in a single call.
+	 * 
+	 * @author jmhend
+	 */
+	public static interface OnPinchFrameListener {
+		
+		/**
+		 * Called once per pinch frame, after the frame's heights are set on the children's 
+		 * LayoutParams and before they're laid out at them.
+		 * @param listView
+		 * @param newHeight The new pinch height.
+		 * @param heightPercent
+		 * @param frame The children pinched this frame. Only valid during the call.
+		 */
+		public void onPinchFrame(PinchListView listView, int newHeight, float heightPercent, PinchFrame frame);
+	}
+	
+	/**
+	 * @param listener The OnPinchFrameListener to callback to.
+	 */
+	public void addOnPinchFrameListener(OnPinchFrameListener listener) {
+		addOnPinchFrameListener(listener, 0.0f, 0);
+	}
+	
+	/**
+	 * Registers 'listener' to be called back only when the height percentage crosses into 
+	 * a new multiple of 'percentStep', and no more often than every 'minIntervalMillis'.
+	 * Reaching fully collapsed or expanded is always dispatched.
+	 * @param listener The OnPinchFrameListener to callback to.
+	 * @param percentStep Quantization step, e.g. 0.1f; 0 to dispatch every change.
+	 * @param minIntervalMillis Minimum time between callbacks; 0 for no limit.
+	 */
+	public void addOnPinchFrameListener(OnPinchFrameListener listener, float percentStep, long minIntervalMillis) {
+		mPinchDispatcher.addListener(listener, false, percentStep, minIntervalMillis);
+	}
+	
+	/**
+	 * Safe to call while listeners are being dispatched to.
+	 * @param listener The OnPinchFrameListener to stop calling back to.
+	 */
+	public void removeOnPinchFrameListener(OnPinchFrameListener listener) {
+		mPinchDispatcher.removeListener(listener);
+	}
+	
+	/**
+	 * @return True if any listener wants pinch frames.
+	 */
+	private boolean hasPinchListeners() {
+		return mPinchDispatcher.hasListeners();
+	}
+	
+	/**
+	 * Dispatches the children collected into the PinchFrame this frame
+	 * to each listener whose quantization and interval allow it.
+	 * @param height The new pinch height.
+	 */
+	private void dispatchPinchFrame(int height) {
+		if (mPinchFrame.getCount() == 0) {
+			return;
+		}
+		PinchTrace.begin(PinchTrace.DISPATCH_LISTENERS);
+		final float heightPercent = calculateHeightPercentage(height, mExpandedHeight, mCollapsedHeight);
+		mPinchDispatcher.dispatch(height, heightPercent, SystemClock.uptimeMillis());
+		PinchTrace.end();
+	}
+	
+	/**
+	 * Calls the registered OnItemPinchListeners and OnPinchFrameListeners back.
+	 * Listener arrays are copied on write, so listeners may add and remove listeners from their callbacks.
+	 * 
+	 * @author jmhend
+	 */
+	private final class PinchListenerDispatcher extends PinchDispatcher<View> {
+		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.PinchDispatcher#onFrame(java.lang.Object, int, float, me.jmhend.PinchListView.core.PinchDispatcher.Frame)
+		 */
+		@Override
+		protected void onFrame(Object listener, int height, float heightPercent, PinchDispatcher.Frame<View> frame) {
+			((OnPinchFrameListener) listener).onPinchFrame(PinchListView.this, height, heightPercent, mPinchFrame);
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.core.PinchDispatcher#onItem(java.lang.Object, java.lang.Object, int, float)
+		 */
+		@Override
+		protected void onItem(Object listener, View view, int height, float heightPercent) {
+			((OnItemPinchListener) listener).onItemPinch(PinchListView.this, view, height, heightPercent);
+		}
+	}
+	
+	/**
+	 * The children pinched in one frame. Reused between frames, so don't hold onto it.
+	 * 
+	 * @author jmhend
+	 */
+	public static final class PinchFrame {
+		private final PinchDispatcher.Frame<View> frame;
+		
+		private PinchFrame(PinchDispatcher.Frame<View> frame) {
+			this.frame = frame;
+		}
+		
+		/**
+		 * @return The number of children pinched this frame.
+		 */
+		public int getCount() {
+			return frame.getCount();
+		}
+		
+		/**
+		 * @param index
+		 * @return The 'index'th pinched child.
+		 */
+		public View getView(int index) {
+			return frame.getView(index);
+		}
+		
+		/**
+		 * @param index
+		 * @return The adapter position of the 'index'th pinched child, not counting header views.
+		 */
+		public int getPosition(int index) {
+			return frame.getPosition(index);
+		}
+		
+		/**
+		 * @param index
+		 * @return The new height of the 'index'th pinched child.
+		 */
+		public int getHeight(int index) {
+			return frame.getHeight(index);
+		}
 	}
 	
 	/**
@@ -415,6 +2006,7 @@ public class PinchListView extends ListView  {
 		
 		/**
 		 * Called when the pinch action or animation is completed.
+		 * With more than two pinch levels, listView.getPinchLevel() gives the level settled at.
 		 * @param listView
 		 * @param endingState
 		 */
@@ -428,6 +2020,107 @@ public class PinchListView extends ListView  {
 		mPinchCompleteListener = listener;
 	}
 	
+////=========================================================================================
+//// PinchStats
+////=========================================================================================
+	
+	/**
+	 * Receives the PinchStats of each pinch gesture once its settle animation ends.
+	 * @author jmhend
+	 *
+	 */
+	public static interface OnPinchStatsListener {
+		
+		/**
+		 * @param listView
+		 * @param stats Only valid during this call; copy it with PinchStats.set() to keep it.
+		 */
+		public void onPinchStats(PinchListView listView, PinchStats stats);
+	}
+	
+	/**
+	 * @param listener
+	 */
+	public void setOnPinchStatsListener(OnPinchStatsListener listener) {
+		mPinchStatsListener = listener;
+	}
+	
+	/**
+	 * @return True if each pinch gesture's PinchStats are recorded.
+	 */
+	public boolean isPinchStatsEnabled() {
+		return mPinchStatsEnabled;
+	}
+	
+	/**
+	 * Starts or stops recording PinchStats, from the next pinch gesture. Off by default.
+	 * @param enabled
+	 */
+	public void setPinchStatsEnabled(boolean enabled) {
+		mPinchStatsEnabled = enabled;
+		if (!enabled) {
+			mPinchStats.endGesture(System.nanoTime());
+		}
+	}
+	
+	/**
+	 * Copies the stats of the current, or most recent, pinch gesture into 'outStats'.
+	 * @param outStats
+	 * @return outStats
+	 */
+	public PinchStats getPinchStats(PinchStats outStats) {
+		outStats.set(mPinchStats);
+		return outStats;
+	}
+	
+	/**
+	 * Zeroes the recorded PinchStats, abandoning any gesture being recorded.
+	 */
+	public void resetPinchStats() {
+		mPinchStats.reset();
+	}
+	
+	/**
+	 * Starts recording a pinch gesture, reporting any gesture still being recorded.
+	 */
+	private void beginPinchStats() {
+		finishPinchStats();
+		if (mPinchStatsEnabled) {
+			mPinchStats.beginGesture(System.nanoTime());
+		}
+	}
+	
+	/**
+	 * Stops recording the current pinch gesture and reports it.
+	 */
+	private void finishPinchStats() {
+		if (!mPinchStats.isRecording()) {
+			return;
+		}
+		mPinchStats.endGesture(System.nanoTime());
+		if (mPinchStatsListener != null) {
+			mPinchStatsListener.onPinchStats(this, mPinchStats);
+		}
+	}
+	
+	/**
+	 * Starts timing pinch work on this frame, if a gesture is being recorded.
+	 */
+	private void beginStatsWork() {
+		if (mPinchStats.isRecording()) {
+			mPinchStats.beginWork(System.nanoTime());
+		}
+	}
+	
+	/**
+	 * Stops timing pinch work on this frame.
+	 */
+	private void endStatsWork() {
+		if (mPinchStats.isRecording()) {
+			mPinchStats.endWork(System.nanoTime());
+		}
+	}
+	
 	
 ////=========================================================================================
 //// PinchListener
@@ -444,9 +2137,15 @@ public class PinchListView extends ListView  {
 	private class PinchHandler implements IOnScaleGestureListener {
 
 		/**
-		 * Duration of a full expand/collapse pinch animation.
+		 * Most rows measured ahead of time for a neighbouring pinch level.
+		 */
+		private static final int MAX_PREPARED_ROWS = 256;
+		
+		/**
+		 * Expected delay, in milliseconds, between a frame's callback and its pixels
+		 * reaching the screen, which touch prediction extrapolates across.
 		 */
-		private static final long ANIMATE_DURATION_MILLIS = 200; 
+		private static final long PRESENT_DELAY_MILLIS = 16;
 		
 		/**
 		 * True if the pinch action is expanding the cell, false if it is collapsing the cell.
@@ -469,9 +2168,33 @@ public class PinchListView extends ListView  {
 		private int maxPinchDistance;
 		
 		/**
-		 * Minimum distance a cell height can be pinched.
+		 * Cell height the gesture has pinched to, which the next frame applies to the children.
+		 */
+		private int gestureHeight;
+		
+		/**
+		 * The span, its velocity and the event time at the latest scale event, for touch prediction.
+		 */
+		private float gestureSpan;
+		private float gestureSpanVelocity;
+		private long gestureEventTime;
+		
+		/**
+		 * True while a frame is scheduled to apply gestureHeight.
 		 */
-		private final int minPinchDistance = 0;
+		private boolean scaleFramePending;
+		private final ScaleFrameCallback scaleVsync = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN 
+				? new ScaleFrameCallback(this) : null;
+		private final Runnable scaleFrameRunnable = new Runnable() {
+			/*
+			 * (non-Javadoc)
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				applyScaleFrame(SystemClock.uptimeMillis());
+			}
+		};
 		
 	////====================================================================================
 	//// Constructor.
@@ -481,16 +2204,19 @@ public class PinchListView extends ListView  {
 		 * Empty constructor.
 		 */
 		public PinchHandler() {
-			maxHeight = getExpandedHeight(0);
+			maxHeight = mExpandedHeight;
 			minHeight = getCollapsedHeight();
 			maxPinchDistance = maxHeight - minHeight;
 		}
 		
 		/**
+		 * @param minHeight Minimum collapse height.
 		 * @param maxHeight Maximum expansion height.
 		 */
-		private void setMaxHeight(int maxHeight) {
+		private void setHeightRange(int minHeight, int maxHeight) {
+			this.minHeight = minHeight;
 			this.maxHeight = maxHeight;
+			this.maxPinchDistance = maxHeight - minHeight;
 		}
 		
 	////====================================================================================
@@ -503,37 +2229,23 @@ public class PinchListView extends ListView  {
 		 */
 		@Override
 		public boolean onScale(IScaleGestureDetector detector) {
-			final int currentHeight = getPinchHeight();
-			final float scalingFactor = 1 + ((detector.getScaleFactor() - 1) * 8);
+			PinchTrace.begin(PinchTrace.SCALE);
+			beginStatsWork();
+			mPinchStats.onScale();
 			
 			// Check the pinch direction.
-			final boolean currentlyExpanding = scalingFactor > 1.0f;
-			if (currentlyExpanding != isExpanding) {
-				isExpanding = currentlyExpanding;
-			}
-			
-			// Calculate new cell height
-			int newHeight = ((int) (currentHeight * scalingFactor));
-
-			// Make sure the height changes, even if the scale is too small to affect integer changes.
-			if (newHeight == currentHeight) {
-				if (scalingFactor > 1.0f) {
-					newHeight++;
-				} else {
-					newHeight--;
-				}
-			}
-			
-			// Verify height is in bounds.
-			if (newHeight > maxHeight) {
-				newHeight = maxHeight;
-			} else if (newHeight < minHeight) {
-				newHeight = minHeight;
-			}
+			final float scaleFactor = detector.getScaleFactor();
+			isExpanding = PinchMath.amplifyScale(scaleFactor) > 1.0f;
 			
-			// Set new height.
-			setPinchHeight(newHeight);
-			setChildrenHeight(newHeight);
+			// Accumulate the new cell height, in bounds. The children only 
+			// take it on the next frame, however many scale events arrive before then.
+			gestureHeight = PinchMath.scaleHeight(gestureHeight, scaleFactor, minHeight, maxHeight);
+			gestureSpan = detector.getCurrentSpan();
+			gestureSpanVelocity = detector.getSpanVelocity();
+			gestureEventTime = detector.getEventTime();
+			scheduleScaleFrame();
+			endStatsWork();
+			PinchTrace.end();
 			return true;
 		}
 
@@ -544,8 +2256,19 @@ public class PinchListView extends ListView  {
 		 */
 		@Override
 		public boolean onScaleBegin(IScaleGestureDetector detector) {
+			// A new pinch takes over from any settle still running, from the height the rows are actually at;
+			// the settle had already set mPinchHeight to its target.
+			if (mPinchAnimation.isRunning()) {
+				setPinchHeight(mPinchAnimation.cancel());
+			}
+			cancelScaleFrame();
+			mRowPrefetcher.clear();
+			expandCollapsedRuns();
+			gestureHeight = getPinchHeight();
+			beginPinchStats();
 			int y = (int) detector.getFocusY();
-			setAnchorView(findAnchorView(y));
+			setAnchorView(resolveAnchorView(y));
+			prepareNeighbourLevels();
 			return true;
 		}
 	
@@ -555,11 +2278,95 @@ public class PinchListView extends ListView  {
 		 */
 		@Override
 		public void onScaleEnd(IScaleGestureDetector detector) {
+			flushScaleFrame();
+			if (mPinchStats.isRecording()) {
+				mPinchStats.beginSettle(System.nanoTime());
+			}
 			int fromHeight = getPinchHeight();
-			int toHeight = calcTargetHeight();
-			long duration = calcAnimationDuration(getPinchHeight(), toHeight);
+			float velocity = calcHeightVelocity(detector);
+			int toHeight = calcTargetHeight(velocity);
+			long duration = calcSettleDuration(fromHeight, toHeight, velocity);
 			setPinchHeight(toHeight);
-			animateChildrenHeight(fromHeight, toHeight, duration);
+			prefetchRowsAt(fromHeight, toHeight);
+			if (duration < calcAnimationDuration(fromHeight, toHeight)) {
+				// Carry the release velocity into the settle, and decelerate to a stop.
+				PinchAnimation.withPinchListView(PinchListView.this).fromHeight(fromHeight).toHeight(toHeight)
+						.decelerate().withListener(mSettleListener).go(duration);
+			} else {
+				animateChildrenHeight(fromHeight, toHeight, duration);
+			}
+		}
+		
+	////====================================================================================
+	//// Frame coalescing
+	////====================================================================================
+		
+		/**
+		 * Requests a frame to apply gestureHeight, unless one is already pending.
+		 */
+		private void scheduleScaleFrame() {
+			if (scaleFramePending) {
+				return;
+			}
+			scaleFramePending = true;
+			if (scaleVsync != null) {
+				scaleVsync.post();
+			} else {
+				post(scaleFrameRunnable);
+			}
+		}
+		
+		/**
+		 * Drops a pending scale frame, without applying it.
+		 */
+		private void cancelScaleFrame() {
+			if (!scaleFramePending) {
+				return;
+			}
+			scaleFramePending = false;
+			if (scaleVsync != null) {
+				scaleVsync.cancel();
+			} else {
+				removeCallbacks(scaleFrameRunnable);
+			}
+		}
+		
+		/**
+		 * Applies gestureHeight now, unpredicted, if the children aren't already at it.
+		 */
+		private void flushScaleFrame() {
+			final boolean pending = scaleFramePending;
+			cancelScaleFrame();
+			if (pending || getPinchHeight() != gestureHeight) {
+				beginStatsWork();
+				setPinchHeight(gestureHeight);
+				setChildrenHeight(gestureHeight);
+				endStatsWork();
+			}
+		}
+		
+		/**
+		 * Applies the height accumulated since the last frame, extrapolated to
+		 * the frame's present time if touch prediction is on.
+		 * @param frameTimeMillis
+		 */
+		private void applyScaleFrame(long frameTimeMillis) {
+			if (!scaleFramePending) {
+				return;
+			}
+			scaleFramePending = false;
+			int height = gestureHeight;
+			if (mTouchPrediction) {
+				final float predictedScale = PinchMath.predictScale(gestureSpan, gestureSpanVelocity, 
+						frameTimeMillis + PRESENT_DELAY_MILLIS - gestureEventTime);
+				if (predictedScale != 1.0f) {
+					height = PinchMath.scaleHeight(gestureHeight, predictedScale, minHeight, maxHeight);
+				}
+			}
+			beginStatsWork();
+			setPinchHeight(height);
+			setChildrenHeight(height);
+			endStatsWork();
 		}
 		
 		/**
@@ -581,11 +2388,16 @@ public class PinchListView extends ListView  {
 		 * @param toHeight
 		 */
 		private void animateHeightTo(int toHeight) {
-			setAnchorView(findAnchorView(PinchListView.this.getHeight() / 2));
+			expandCollapsedRuns();
+			setAnchorView(resolveAnchorView(PinchListView.this.getHeight() / 2));
+			if (mPinchAnimation.isRunning()) {
+				setPinchHeight(mPinchAnimation.cancel());
+			}
 			
 			long duration = calcAnimationDuration(getPinchHeight(), toHeight);
 			int fromHeight = getPinchHeight();
 			setPinchHeight(toHeight);
+			prefetchRowsAt(fromHeight, toHeight);
 			animateChildrenHeight(fromHeight, toHeight, duration);
 		}
 		
@@ -594,168 +2406,257 @@ public class PinchListView extends ListView  {
 	////====================================================================================
 		
 		/**
-		 * Sets the height of all visible pinchable children to 'height'.
+		 * Sets the height of all visible pinchable children to 'height'.
+		 * @param height
+		 */
+		public void setChildrenHeight(int height) {
+			PinchTrace.begin(PinchTrace.SET_CHILDREN_HEIGHT);
+			updateDetailLevel(height);
+			if (mPinchMode == PinchMode.TRANSFORM && height >= mLayoutPinchHeight) {
+				setTransformHeight(height);
+				dispatchItemPinch(height);
+			} else {
+				// Shrinking frames are laid out, so the rows they bring into view get bound.
+				if (mTransformActive) {
+					mTransformActive = false;
+					invalidate();
+				}
+				setChildrenLayoutHeight(height);
+			}
+			PinchTrace.end();
+		}
+		
+		/**
+		 * Notifies the pinch listeners that each visible pinchable child is drawn at 'height'.
+		 * @param height
+		 */
+		private void dispatchItemPinch(int height) {
+			if (!hasPinchListeners()) {
+				return;
+			}
+			final int headers = getHeaderViewsCount();
+			final int firstPosition = getFirstVisiblePosition();
+			final int lastPinchablePosition = getCount() - getFooterViewsCount();
+			for (int i = 0; i < getChildCount(); i++) {
+				// Header and footer views aren't the adapter's rows.
+				final int listPosition = i + firstPosition;
+				if (listPosition < headers || listPosition >= lastPinchablePosition) {
+					continue;
+				}
+				final int position = listPosition - headers;
+				if (isRowPinchable(position)) {
+					mPinchDispatcher.add(getChildAt(i), position, getRowHeight(position, height));
+				}
+			}
+			dispatchPinchFrame(height);
+		}
+		
+		/**
+		 * Lays out all visible pinchable children at 'height'.
 		 * @param height
 		 */
-		public void setChildrenHeight(int height) {
-			boolean haveAnchor = mAnchorView != null;
-			boolean reachedAnchor = false;
-			int anchorIndex = - 1;
+		private void setChildrenLayoutHeight(int height) {
+			// A frame that listeners are waiting on, but that hasn't been laid out yet, is applied first.
+			if (mPinchDispatchPending) {
+				applyPinchFrame();
+			}
+			mLayoutPinchHeight = height;
+			
+			int anchorPosition = INVALID_POSITION;
+			int anchorTop = 0;
 			
-			int heightDiff = 0;
+			int touched = 0;
+			final boolean collectFrame = hasPinchListeners();
+			final int headers = getHeaderViewsCount();
+			final int firstPosition = getFirstVisiblePosition();
+			final int lastPinchablePosition = getCount() - getFooterViewsCount();
 			for (int i = 0; i < getChildCount(); i++) {
 				View child = getChildAt(i);
-				int position = i + getFirstVisiblePosition();
-				if (position >= getCount() - getFooterViewsCount()) {
-					continue;
-				}
+				final int listPosition = i + firstPosition;
 				if (child == mAnchorView) {
-					anchorIndex = position;
-					reachedAnchor = true;
+					anchorPosition = listPosition;
+					anchorTop = child.getTop();
 				}
-				if (mPinchAdapter.isRowPinchable(position)) {
-					int oldHeight = child.getLayoutParams().height;
-					if (oldHeight != height) {
+				// Header and footer views aren't the adapter's rows.
+				if (listPosition < headers || listPosition >= lastPinchablePosition) {
+					continue;
+				}
+				final int position = listPosition - headers;
+				if (isRowPinchable(position)) {
+					final int rowHeight = getRowHeight(position, height);
+					// The frame table follows the children, so it's indexed by list position.
+					int oldHeight = getFrameHeight(listPosition, child);
+					if (oldHeight != rowHeight) {
+						touched++;
 						
-						if (haveAnchor) {
-							if (!reachedAnchor) {
-								if (child != mAnchorView) {
-									heightDiff += (height - oldHeight);
-								}
-							}
+						if (mBatchPinchLayout) {
+							setFrameHeight(listPosition, rowHeight);
+						} else {
+							child.getLayoutParams().height = rowHeight;
+							child.requestLayout();
+							mPinchStats.onLayoutRequested();
 						}
 						
-						child.getLayoutParams().height = height;
-						child.requestLayout();
-						
-						if (!mPinchListeners.isEmpty()) {
-							final float newHeightPercent = calculateHeightPercentage(height, mExpandedHeight, mCollapsedHeight);
-							for (OnItemPinchListener l : mPinchListeners) {
-								l.onItemPinch(PinchListView.this, child, height, newHeightPercent);
-							}
+						if (collectFrame) {
+							mPinchDispatcher.add(child, position, rowHeight);
 						}
 					}
 				}
 			}
 			
+			if (touched == 0) {
+				return;
+			}
+			mPinchStats.onChildrenTouched(touched);
+			
+			if (collectFrame) {
+				if (mBatchPinchLayout) {
+					// Dispatched by layoutChildren(), once it has applied the frame table.
+					mPinchDispatchPending = true;
+					mPinchDispatchHeight = height;
+				} else {
+					dispatchPinchFrame(height);
+				}
+			}
+			
+			// Hold the anchor's top where it is in the coming layout pass.
+			if (anchorPosition != INVALID_POSITION) {
+				pinAnchor(anchorPosition, anchorTop);
+			}
 			
-			if (haveAnchor && supportsScrollAdjusting()) {
-				final int offset = heightDiff;
-				final ListView list = PinchListView.this;
-				list.smoothScrollBy(offset, 0);
+			// One layout request for the whole frame; layoutChildren() applies the frame table.
+			if (mBatchPinchLayout) {
+				requestLayout();
+				mPinchStats.onLayoutRequested();
 			}
 		}
 		
 		private View mAnchorView = null;
 		
-		private void setAnchorView(View view) {
-			mAnchorView = view;
+		/**
+		 * Measures, ahead of time, the rows that will be on screen around the anchor 
+		 * at the pinch levels either side of the current height, so snapping to either 
+		 * doesn't measure rows mid-animation. Only does anything with an ExpandedHeightAdapter:
+		 * without one, every row's heights are known up front.
+		 */
+		private void prepareNeighbourLevels() {
+			if (mExpandedHeightAdapter == null || mAnchorView == null) {
+				return;
+			}
+			final int anchorIndex = indexOfChild(mAnchorView);
+			final int anchorPosition = getFirstVisiblePosition() + anchorIndex - getHeaderViewsCount();
+			// An anchor among the header or footer views isn't one of the adapter's rows.
+			if (anchorIndex < 0 || anchorPosition < 0 || anchorPosition >= mAdapter.getCount()) {
+				return;
+			}
+			final int anchorTop = mAnchorView.getTop();
+			final int height = getPinchHeight();
+			prepareLevel(anchorPosition, anchorTop, mPinchLevels.getNextLevel(height, false));
+			prepareLevel(anchorPosition, anchorTop, mPinchLevels.getNextLevel(height, true));
 		}
 		
-		private View findAnchorView(int focusY) {
-			View groupedView = findGroupingCenterInVicinity(focusY);
-			if (groupedView != null) {
-				return groupedView;
-			}
-			int prevChildTop = 0;
-			for (int i = 0; i < getChildCount(); i++) {
-				View child = getChildAt(i);
-				
-				int top = child.getTop();
-				
-				if (top > focusY && prevChildTop < focusY) {
-					int prevIndex = i - 1;
-					if (prevIndex < 0) {
-						prevIndex = 0;
-					}
-					View view = getChildAt(prevIndex);
-					return view;
-				}
-				
-				prevChildTop = top;
+		/**
+		 * Measures the rows that will be visible at 'level' with the anchor held in place.
+		 */
+		private void prepareLevel(int anchorPosition, int anchorTop, int level) {
+			predictVisibleRange(anchorPosition, anchorTop, mPinchLevels.getHeight(level), mPredictedRange);
+			final int end = Math.min(mPredictedRange[1], mPredictedRange[0] + MAX_PREPARED_ROWS);
+			for (int position = mPredictedRange[0]; position <= end; position++) {
+				getExpandedHeight(position);
 			}
-			return null;
 		}
 		
 		/**
-		 * @param focusY
-		 * @return
+		 * Queues the rows that will come into view once the pinchable rows collapse from 'fromHeight'
+		 * to 'toHeight', with the anchor held in place, to be bound while the main thread is idle.
+		 * Rows entering below the viewport go first; on a collapse, that's where most of them are.
+		 * 
+		 * Only collapses are prefetched: an expansion pushes rows off screen, and the rows it brings in 
+		 * are bound from their scrap Views, where a prefetched row would be inflated afresh.
 		 */
-		private View findGroupingCenterInVicinity(int focusY) {
-			final int searchStart = focusY - mGroupingVicinityThreshold;
-			final int searchEnd = focusY + mGroupingVicinityThreshold;
-			
-			int groupStartPosition = -1;
-			int groupCount = 0;
-			final int childCount = getChildCount();
-			for (int i = 0; i < childCount; i++) {
-				View child = getChildAt(i);
-				
-				final int top = child.getTop();
-				if (top < searchStart) {
-					continue;
-				}
-				if (top > searchEnd) {
-					break;
+		private void prefetchRowsAt(int fromHeight, int toHeight) {
+			if (!mSettlePrefetch || mAdapter == null || mAnchorView == null || toHeight >= fromHeight) {
+				return;
+			}
+			final int anchorIndex = indexOfChild(mAnchorView);
+			final int headers = getHeaderViewsCount();
+			final int firstPosition = getFirstVisiblePosition() - headers;
+			if (anchorIndex < 0 || firstPosition + anchorIndex < 0) {
+				return;
+			}
+			final int lastPosition = firstPosition + getChildCount() - 1;
+			predictVisibleRange(firstPosition + anchorIndex, mAnchorView.getTop(), toHeight, mPredictedRange);
+			final int end = Math.min(mPredictedRange[1], mAdapter.getCount() - 1);
+			final int above = Math.min(firstPosition - 1, end);
+			// Capped at the rows the final frame shows.
+			mRowPrefetcher.start(Math.max(end - mPredictedRange[0] + 1, 0));
+			for (int position = lastPosition + 1; position <= end; position++) {
+				if (!mRowPrefetcher.request(position)) {
+					return;
 				}
-				
-				final int height = child.getHeight();
-				
-				// Row is collapsed.
-				if (height == mCollapsedHeight) {
-					if (groupCount == 0) {
-						groupStartPosition = i;
-					}
-					groupCount++;
-					
-				} else {
-					// We're iterating over a collapsed grouping, but passed the end of it.
-					if (groupCount > 0) {
-						break;
-					}
+			}
+			for (int position = above; position >= mPredictedRange[0]; position--) {
+				if (!mRowPrefetcher.request(position)) {
+					return;
 				}
 			}
-			
-			if (groupCount > 0) {
-				Assert.assertTrue(groupStartPosition != -1);
-				int groupOffset = groupCount / 2;
-				int viewPosition = groupStartPosition + groupOffset;
-				return (getChildAt(viewPosition));
+		}
+		
+		private void setAnchorView(View view) {
+			mAnchorView = view;
+		}
+		
+		/**
+		 * findAnchorView(), inside a trace section.
+		 * @param focusY
+		 * @return The View to hold in place while pinching around 'focusY'.
+		 */
+		private View resolveAnchorView(int focusY) {
+			PinchTrace.begin(PinchTrace.RESOLVE_ANCHOR);
+			final View anchor = findAnchorView(focusY);
+			PinchTrace.end();
+			return anchor;
+		}
+		
+		/**
+		 * O(log n) in the number of children.
+		 * @param focusY
+		 * @return The View to hold in place while pinching around 'focusY'.
+		 */
+		private View findAnchorView(int focusY) {
+			if (!ensureChildGeometry()) {
+				return null;
 			}
-			
-			return null;
+			final int index = AnchorResolver.findAnchor(mChildGeometry, focusY - mChildGeometryOrigin, 
+					mCollapsedHeight, mGroupingVicinityThreshold);
+			return index < 0 ? null : getChildAt(index);
 		}
 		
+		/**
+		 * Notifies the OnPinchCompleteListener, releases the anchor, 
+		 * and lets go of the settle's prefetched rows once a settle animation ends.
+		 */
+		private final PinchAnimationListener mSettleListener = new SimplePinchAnimationListener() {
+			/*
+			 * (non-Javadoc)
+			 * @see me.jmhend.PinchListView.PinchListView.SimplePinchAnimationListener#onPinchAnimationEnd(me.jmhend.PinchListView.PinchListView)
+			 */
+			@Override
+			public void onPinchAnimationEnd(PinchListView listView) {
+				if (mPinchCompleteListener != null) {
+					mPinchCompleteListener.onPinchComplete(PinchListView.this, getPinchState());
+				}
+				setAnchorView(null);
+				mRowPrefetcher.dropAfterLayout();
+				finishPinchStats();
+			}
+		};
+		
 		/**
 		 * Animates the height of all visible pinchable children to 'height'.
 		 */
 		private void animateChildrenHeight(int fromHeight, int toHeight, long duration) {
-			final AnimationListener l = new AnimationListener() {
-				/*
-				 * (non-Javadoc)
-				 * @see android.view.animation.Animation.AnimationListener#onAnimationEnd(android.view.animation.Animation)
-				 */
-				@Override
-				public void onAnimationEnd(Animation animation) {
-					if (mPinchCompleteListener != null) {
-						mPinchCompleteListener.onPinchComplete(PinchListView.this, getPinchState());
-					}
-					setAnchorView(null);
-				}
-				/*
-				 * (non-Javadoc)
-				 * @see android.view.animation.Animation.AnimationListener#onAnimationStart(android.view.animation.Animation)
-				 */
-				@Override
-				public void onAnimationStart(Animation animation) { }
-				/*
-				 * (non-Javadoc)
-				 * @see android.view.animation.Animation.AnimationListener#onAnimationRepeat(android.view.animation.Animation)
-				 */
-				@Override
-				public void onAnimationRepeat(Animation animation) { }
-			};
-			PinchAnimation.withPinchListView(PinchListView.this).fromHeight(fromHeight).toHeight(toHeight).withListener(l).go(duration);
+			PinchAnimation.withPinchListView(PinchListView.this).fromHeight(fromHeight).toHeight(toHeight).withListener(mSettleListener).go(duration);
 		}
 		
 	////====================================================================================
@@ -763,27 +2664,33 @@ public class PinchListView extends ListView  {
 	////====================================================================================
 		
 		/**
+		 * @return The rate, in pixels per second, at which the cell height was changing
+		 * when the pinch was released.
+		 */
+		private float calcHeightVelocity(IScaleGestureDetector detector) {
+			return PinchMath.heightVelocity(getPinchHeight(), detector.getCurrentSpan(), detector.getSpanVelocity());
+		}
+		
+		/**
+		 * @param velocity The cell height velocity, in pixels per second, at release.
 		 * @return The cell height each child should animate to.
 		 */
-		private int calcTargetHeight() {
-			float heightFraction = getCellHeightPercentage();
-			if (heightFraction > 0.85f) {
-				return maxHeight;
-			}
-			if (heightFraction < 0.15f) {
-				return minHeight;
-			}
-			return isExpanding ? maxHeight : minHeight;
+		private int calcTargetHeight(float velocity) {
+			return PinchMath.targetHeight(mPinchLevels, getPinchHeight(), velocity, isExpanding);
 		}
 		
 		/**
 		 * @return The length of the animation duration.
 		 */
 		private long calcAnimationDuration(int currentHeight, int targetHeight) {
-			final int distance = Math.abs(targetHeight - currentHeight);
-			float percent = ((float) (distance - minPinchDistance)) / ((float) (maxPinchDistance - minPinchDistance));
-			long duration = Math.max((long) (percent * ANIMATE_DURATION_MILLIS), 1L);
-			return duration;
+			return PinchMath.animationDuration(currentHeight, targetHeight, maxPinchDistance);
+		}
+		
+		/**
+		 * @return The length of the settle animation.
+		 */
+		private long calcSettleDuration(int currentHeight, int targetHeight, float velocity) {
+			return PinchMath.settleDuration(currentHeight, targetHeight, velocity, maxPinchDistance);
 		}
 	}
 	
@@ -792,59 +2699,305 @@ public class PinchListView extends ListView  {
 ////=========================================================================================
 	
 	/**
-	 * Animates the collapsing/expanding of a View.
+	 * Applies a PinchHandler's coalesced scale events on vsync. Only loaded on JELLY_BEAN and above.
+	 * @author jmhend
+	 *
+	 */
+	private static class ScaleFrameCallback implements Choreographer.FrameCallback {
+		private final PinchHandler handler;
+		
+		private ScaleFrameCallback(PinchHandler handler) {
+			this.handler = handler;
+		}
+		
+		private void post() {
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+		
+		private void cancel() {
+			Choreographer.getInstance().removeFrameCallback(this);
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see android.view.Choreographer.FrameCallback#doFrame(long)
+		 */
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			handler.applyScaleFrame(frameTimeNanos / 1000000L);
+		}
+	}
+	
+	/**
+	 * Animates the collapsing/expanding of the pinchable cells.
+	 * 
+	 * Each PinchListView owns a single PinchAnimation, which is driven by Choreographer
+	 * frame callbacks (or a frame-delayed Runnable before JELLY_BEAN), so starting an animation
+	 * and running its frames allocates nothing.
+	 * 
+	 * An animation runs along a track of keyframes: a start height followed by 
+	 * (height, duration) segments, each eased independently, with no gaps between them.
 	 * 
 	 * @author jmhend
 	 *
 	 */
-	public static class PinchAnimation extends Animation {
+	public static class PinchAnimation {
+		
+		/**
+		 * Frame delay used when Choreographer isn't available.
+		 */
+		private static final long FALLBACK_FRAME_DELAY_MILLIS = 16;
+		
 		private final PinchListView plv;
-		private final int startHeight;
-		private final int endHeight;
-		private final boolean willChangeHeight;
+		private final Builder builder;
+		private final VsyncCallback vsync;
+		
+		/**
+		 * Runs a frame when Choreographer isn't available.
+		 */
+		private final Runnable fallbackFrame = new Runnable() {
+			/*
+			 * (non-Javadoc)
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				doFrame(SystemClock.uptimeMillis());
+			}
+		};
+		
+		private int[] trackHeights = new int[2];
+		private long[] trackEndTimes = new long[1];
+		private int segmentCount;
+		private int segment;
+		private boolean decelerate;
+		private long startTime;
+		private boolean running;
+		private int lastHeight;
+		private PinchAnimationListener listener;
 		
 		/**
 		 * Constructor.
 		 */
-		public PinchAnimation(PinchListView plv, int startHeight, int endHeight) {
+		private PinchAnimation(PinchListView plv) {
 			this.plv = plv;
-			this.startHeight = startHeight;
-			this.endHeight = endHeight;
-			this.willChangeHeight = startHeight != endHeight;
+			this.builder = new Builder(plv);
+			this.vsync = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ? new VsyncCallback(this) : null;
 		}
 		
 		/**
-		 * Starts building a CollapseAnimation.
-		 * @param view
+		 * Starts building an animation of 'plv's pinchable cells.
+		 * The returned Builder is owned by 'plv' and reused.
+		 * @param plv
 		 * @return
 		 */
 		public static PinchAnimation.Builder withPinchListView(PinchListView plv) {
-			return new Builder(plv);
+			return plv.mPinchAnimation.builder.reset();
 		}
-
-		/*
-		 * (non-Javadoc)
-		 * @see android.view.animation.Animation#applyTransformation(float, android.view.animation.Transformation)
+		
+		/**
+		 * @return True if the animation is running.
 		 */
-		@Override
-		protected void applyTransformation(float interpolatedTime, Transformation t) {
-			if (willChangeHeight) {
-				int height = (int) (interpolatedTime * (endHeight - startHeight) + startHeight);
-				plv.setPinchableChildrenHeight(height);
+		public boolean isRunning() {
+			return running;
+		}
+		
+		/**
+		 * Starts animating from 'startHeight' through the first 'count' keyframes, 
+		 * replacing any running animation. A replaced animation's listener is not notified.
+		 */
+		private void start(int startHeight, int[] heights, long[] durations, int count, boolean decelerate, PinchAnimationListener listener) {
+			cancel();
+			plv.expandCollapsedRuns();
+			this.decelerate = decelerate;
+			if (trackEndTimes.length < count) {
+				trackHeights = new int[count + 1];
+				trackEndTimes = new long[count];
+			}
+			trackHeights[0] = startHeight;
+			lastHeight = startHeight;
+			long endTime = 0;
+			for (int i = 0; i < count; i++) {
+				endTime += Math.max(durations[i], 0);
+				trackHeights[i + 1] = heights[i];
+				trackEndTimes[i] = endTime;
+			}
+			this.segmentCount = count;
+			this.segment = 0;
+			this.listener = listener;
+			this.startTime = -1;
+			this.running = true;
+			if (listener != null) {
+				listener.onPinchAnimationStart(plv);
 			}
+			scheduleFrame();
 		}
 		
-		/*
-		 * (non-Javadoc)
-		 * @see android.view.animation.Animation#willChangeBounds()
+		/**
+		 * Stops the animation where it is, without notifying its listener.
+		 * @return The height the animation last applied to the pinchable rows, 
+		 * or the PinchListView's pinch height if it wasn't running.
 		 */
-		@Override
-		public boolean willChangeBounds() {
-			return willChangeHeight;
+		public int cancel() {
+			if (!running) {
+				return plv.getPinchHeight();
+			}
+			running = false;
+			listener = null;
+			stopFrames();
+			return lastHeight;
+		}
+		
+		/**
+		 * Jumps the pinchable rows to the animation's target and finishes it, 
+		 * notifying its listener as if it had run to completion.
+		 */
+		public void end() {
+			if (!running) {
+				return;
+			}
+			stopFrames();
+			plv.setPinchableChildrenHeight(plv.getPinchHeight());
+			finish();
+		}
+		
+		/**
+		 * Removes any pending frame callback.
+		 */
+		private void stopFrames() {
+			if (vsync != null) {
+				vsync.cancel();
+			} else {
+				plv.removeCallbacks(fallbackFrame);
+			}
+		}
+		
+		/**
+		 * Requests a callback for the next frame.
+		 */
+		private void scheduleFrame() {
+			if (vsync != null) {
+				vsync.post();
+			} else {
+				plv.postDelayed(fallbackFrame, FALLBACK_FRAME_DELAY_MILLIS);
+			}
+		}
+		
+		/**
+		 * Applies the frame at 'frameTimeMillis'.
+		 * @param frameTimeMillis
+		 */
+		private void doFrame(long frameTimeMillis) {
+			if (!running) {
+				return;
+			}
+			PinchTrace.begin(PinchTrace.ANIMATION_FRAME);
+			plv.beginStatsWork();
+			try {
+				applyFrame(frameTimeMillis);
+			} finally {
+				plv.endStatsWork();
+				PinchTrace.end();
+			}
+		}
+		
+		/**
+		 * Sets the height for the frame at 'frameTimeMillis', and finishes the animation if it's the last.
+		 * @param frameTimeMillis
+		 */
+		private void applyFrame(long frameTimeMillis) {
+			if (startTime < 0) {
+				startTime = frameTimeMillis;
+			}
+			final long elapsed = frameTimeMillis - startTime;
+			if (segmentCount > 0) {
+				while (segment < segmentCount - 1 && elapsed >= trackEndTimes[segment]) {
+					segment++;
+				}
+				final long segmentStart = segment == 0 ? 0 : trackEndTimes[segment - 1];
+				final long segmentDuration = trackEndTimes[segment] - segmentStart;
+				final float normalizedTime = segmentDuration > 0 ? Math.min((float) (elapsed - segmentStart) / segmentDuration, 1.0f) : 1.0f;
+				final int startHeight = trackHeights[segment];
+				final int endHeight = trackHeights[segment + 1];
+				if (startHeight != endHeight) {
+					final float interpolatedTime = decelerate ? decelerate(normalizedTime) : interpolate(normalizedTime);
+					int height = (int) (interpolatedTime * (endHeight - startHeight) + startHeight);
+					plv.setPinchableChildrenHeight(height);
+					lastHeight = height;
+				}
+				
+				if (elapsed < trackEndTimes[segmentCount - 1]) {
+					scheduleFrame();
+					return;
+				}
+			}
+			finish();
+		}
+		
+		/**
+		 * Marks the animation finished, commits its rows, and notifies its listener.
+		 */
+		private void finish() {
+			running = false;
+			plv.commitPinchTransform();
+			plv.scheduleRunCollapse();
+			final PinchAnimationListener l = listener;
+			listener = null;
+			if (l != null) {
+				l.onPinchAnimationEnd(plv);
+			}
+		}
+		
+		/**
+		 * Accelerate/decelerate interpolation, as the legacy Animation did by default.
+		 * @param input
+		 * @return
+		 */
+		private static float interpolate(float input) {
+			return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
+		}
+		
+		/**
+		 * Uniform deceleration: starts at twice the average speed and ends at rest.
+		 * @param input
+		 * @return
+		 */
+		private static float decelerate(float input) {
+			return 1.0f - (1.0f - input) * (1.0f - input);
+		}
+		
+		/**
+		 * Drives a PinchAnimation from vsync. Only loaded on JELLY_BEAN and above.
+		 * @author jmhend
+		 *
+		 */
+		private static class VsyncCallback implements Choreographer.FrameCallback {
+			private final PinchAnimation animation;
+			
+			private VsyncCallback(PinchAnimation animation) {
+				this.animation = animation;
+			}
+			
+			private void post() {
+				Choreographer.getInstance().postFrameCallback(this);
+			}
+			
+			private void cancel() {
+				Choreographer.getInstance().removeFrameCallback(this);
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see android.view.Choreographer.FrameCallback#doFrame(long)
+			 */
+			@Override
+			public void doFrame(long frameTimeNanos) {
+				animation.doFrame(frameTimeNanos / 1000000L);
+			}
 		}
 		
 		/**
-		 * Builder class for creating a CollapseAnimation.
+		 * Builder class for starting a PinchAnimation.
 		 * @author jmhend
 		 *
 		 */
@@ -852,15 +3005,29 @@ public class PinchListView extends ListView  {
 			private PinchListView plv;
 			private int startHeight;
 			private int endHeight;
-			private AnimationListener listener;
+			private PinchAnimationListener listener;
+			private int[] keyHeights = new int[4];
+			private long[] keyDurations = new long[4];
+			private int keyCount;
+			private boolean decelerate;
+			private final int[] singleHeight = new int[1];
+			private final long[] singleDuration = new long[1];
 			
 			public Builder(PinchListView plv) {
 				this.plv = plv;
+				reset();
+			}
+			
+			private Builder reset() {
 				this.startHeight = plv.getPinchHeight();
 				this.endHeight = startHeight;
+				this.listener = null;
+				this.keyCount = 0;
+				this.decelerate = false;
+				return this;
 			}
 			
-			public Builder withListener(AnimationListener listener) {
+			public Builder withListener(PinchAnimationListener listener) {
 				this.listener = listener;
 				return this;
 			}
@@ -875,43 +3042,102 @@ public class PinchListView extends ListView  {
 				return this;
 			}
 			
+			/**
+			 * Eases each keyframe with uniform deceleration instead of accelerate/decelerate,
+			 * e.g. to continue a gesture's velocity.
+			 */
+			public Builder decelerate() {
+				this.decelerate = true;
+				return this;
+			}
+			
 			public Builder byHeight(int amount) {
 				endHeight = startHeight + amount;
 				return this;
 			}
 			
-			public void go(long duration) {
-				PinchAnimation a = new PinchAnimation(plv, startHeight, endHeight);
-				a.setDuration(duration);
-				if (listener != null) {
-					a.setAnimationListener(listener);
+			/**
+			 * Appends a keyframe: animate to 'height' over 'duration' milliseconds, 
+			 * continuing from the previous keyframe (or 'fromHeight').
+			 * Keyframes are run with {@link #go()}.
+			 */
+			public Builder keyframe(int height, long duration) {
+				if (keyCount == keyHeights.length) {
+					final int[] heights = new int[keyCount * 2];
+					final long[] durations = new long[keyCount * 2];
+					System.arraycopy(keyHeights, 0, heights, 0, keyCount);
+					System.arraycopy(keyDurations, 0, durations, 0, keyCount);
+					keyHeights = heights;
+					keyDurations = durations;
 				}
-				plv.startAnimation(a);
+				keyHeights[keyCount] = height;
+				keyDurations[keyCount] = duration;
+				keyCount++;
+				return this;
+			}
+			
+			/**
+			 * Animates from 'fromHeight' to 'toHeight' over 'duration' milliseconds, ignoring any keyframes.
+			 */
+			public void go(long duration) {
+				final PinchAnimationListener l = listener;
+				listener = null;
+				singleHeight[0] = endHeight;
+				singleDuration[0] = duration;
+				plv.mPinchAnimation.start(startHeight, singleHeight, singleDuration, 1, decelerate, l);
+			}
+			
+			/**
+			 * Runs the keyframes as one continuous animation.
+			 */
+			public void go() {
+				final PinchAnimationListener l = listener;
+				listener = null;
+				plv.mPinchAnimation.start(startHeight, keyHeights, keyDurations, keyCount, decelerate, l);
 			}
 		}
 		
 	}
 	
-	private static class SimpleAnimationListener implements AnimationListener {
-
-		@Override
-		public void onAnimationStart(Animation animation) {
-			// TODO Auto-generated method stub
-			
-		}
+	/**
+	 * Listens for a PinchAnimation to start and finish.
+	 * @author jmhend
+	 *
+	 */
+	public static interface PinchAnimationListener {
+		
+		/**
+		 * Called when the animation is started.
+		 * @param listView
+		 */
+		public void onPinchAnimationStart(PinchListView listView);
+		
+		/**
+		 * Called after the animation's last frame, unless it was cancelled or replaced.
+		 * @param listView
+		 */
+		public void onPinchAnimationEnd(PinchListView listView);
+	}
+	
+	/**
+	 * Empty PinchAnimationListener, to override as needed.
+	 * @author jmhend
+	 *
+	 */
+	public static class SimplePinchAnimationListener implements PinchAnimationListener {
 
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.PinchListView.PinchAnimationListener#onPinchAnimationStart(me.jmhend.PinchListView.PinchListView)
+		 */
 		@Override
-		public void onAnimationEnd(Animation animation) {
-			// TODO Auto-generated method stub
-			
-		}
+		public void onPinchAnimationStart(PinchListView listView) { }
 
+		/*
+		 * (non-Javadoc)
+		 * @see me.jmhend.PinchListView.PinchListView.PinchAnimationListener#onPinchAnimationEnd(me.jmhend.PinchListView.PinchListView)
+		 */
 		@Override
-		public void onAnimationRepeat(Animation animation) {
-			// TODO Auto-generated method stub
-			
-		}
-
-		
+		public void onPinchAnimationEnd(PinchListView listView) { }
 	}
 }
@@ -0,0 +1,326 @@
+package me.jmhend.PinchListView;
+
+/**
+ * What a single pinch gesture cost: from onScaleBegin() through the end of its settle animation.
+ *
+ * PinchListView records into its own instance while stats are enabled.
+ * Copy one out with PinchListView.getPinchStats(PinchStats), or receive each finished
+ * gesture's through an OnPinchStatsListener.
+ *
+ * Frame durations are the time PinchListView itself spent on a frame: handling pinch
+ * callbacks and animation ticks, laying out and drawing its children. They're bucketed
+ * into a histogram by getFrameBucketUpperBoundMillis().
+ *
+ * @author jmhend
+ *
+ */
+public final class PinchStats {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/**
+	 * Exclusive upper bounds, in milliseconds, of every histogram bucket but the last.
+	 */
+	private static final int[] BUCKET_BOUNDS_MILLIS = { 4, 8, 12, 16, 24, 33, 50 };
+
+	/**
+	 * Number of frame duration histogram buckets.
+	 */
+	public static final int FRAME_BUCKET_COUNT = BUCKET_BOUNDS_MILLIS.length + 1;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private int mScaleCallbacks;
+	private int mChildrenTouched;
+	private int mLayoutRequests;
+	private int mViewBinds;
+	private long mTimeToFirstFrameNanos = -1;
+	private long mSettleNanos = -1;
+	private int mFrameCount;
+	private final int[] mFrameBuckets = new int[FRAME_BUCKET_COUNT];
+	private long mMaxFrameNanos;
+
+	// Recording state.
+	private boolean mRecording;
+	private long mGestureStartNanos;
+	private long mSettleStartNanos = -1;
+	private boolean mFramePending;
+	private long mFrameWorkNanos;
+	private long mWorkStartNanos = -1;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * Empty stats, to copy into.
+	 */
+	public PinchStats() { }
+
+////=========================================================================================
+//// Stats
+////=========================================================================================
+
+	/**
+	 * @return The number of onScale() callbacks handled.
+	 */
+	public int getScaleCallbackCount() {
+		return mScaleCallbacks;
+	}
+
+	/**
+	 * @return The number of times a child's pinch height was changed.
+	 */
+	public int getChildrenTouchedCount() {
+		return mChildrenTouched;
+	}
+
+	/**
+	 * @return The number of requestLayout() calls issued.
+	 */
+	public int getLayoutRequestCount() {
+		return mLayoutRequests;
+	}
+
+	/**
+	 * @return The number of rows bound through adjustCellHeight(), i.e. getView() calls.
+	 */
+	public int getViewBindCount() {
+		return mViewBinds;
+	}
+
+	/**
+	 * @return Milliseconds from the start of the gesture until the first frame it changed was drawn,
+	 * or -1 if none was.
+	 */
+	public float getTimeToFirstFrameMillis() {
+		return toMillis(mTimeToFirstFrameNanos);
+	}
+
+	/**
+	 * @return Milliseconds from the end of the gesture until its settle animation finished,
+	 * or -1 if it hasn't.
+	 */
+	public float getSettleTimeMillis() {
+		return toMillis(mSettleNanos);
+	}
+
+	/**
+	 * @return The number of frames recorded.
+	 */
+	public int getFrameCount() {
+		return mFrameCount;
+	}
+
+	/**
+	 * @return The longest frame recorded, in milliseconds.
+	 */
+	public float getMaxFrameMillis() {
+		return toMillis(mMaxFrameNanos);
+	}
+
+	/**
+	 * @param bucket In [0, FRAME_BUCKET_COUNT).
+	 * @return The number of frames whose duration fell into 'bucket'.
+	 */
+	public int getFrameBucketCount(int bucket) {
+		return mFrameBuckets[bucket];
+	}
+
+	/**
+	 * @param bucket In [0, FRAME_BUCKET_COUNT).
+	 * @return The exclusive upper bound, in milliseconds, of 'bucket'.
+	 * The last bucket is unbounded, returning Integer.MAX_VALUE.
+	 */
+	public static int getFrameBucketUpperBoundMillis(int bucket) {
+		return bucket < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[bucket] : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Copies 'other' into these stats.
+	 * @param other
+	 */
+	public void set(PinchStats other) {
+		mScaleCallbacks = other.mScaleCallbacks;
+		mChildrenTouched = other.mChildrenTouched;
+		mLayoutRequests = other.mLayoutRequests;
+		mViewBinds = other.mViewBinds;
+		mTimeToFirstFrameNanos = other.mTimeToFirstFrameNanos;
+		mSettleNanos = other.mSettleNanos;
+		mFrameCount = other.mFrameCount;
+		System.arraycopy(other.mFrameBuckets, 0, mFrameBuckets, 0, FRAME_BUCKET_COUNT);
+		mMaxFrameNanos = other.mMaxFrameNanos;
+	}
+
+	/**
+	 * Zeroes every stat and stops recording.
+	 */
+	public void reset() {
+		mScaleCallbacks = 0;
+		mChildrenTouched = 0;
+		mLayoutRequests = 0;
+		mViewBinds = 0;
+		mTimeToFirstFrameNanos = -1;
+		mSettleNanos = -1;
+		mFrameCount = 0;
+		for (int i = 0; i < FRAME_BUCKET_COUNT; i++) {
+			mFrameBuckets[i] = 0;
+		}
+		mMaxFrameNanos = 0;
+		mRecording = false;
+		mSettleStartNanos = -1;
+		mFramePending = false;
+		mFrameWorkNanos = 0;
+		mWorkStartNanos = -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("PinchStats{");
+		sb.append("scales=").append(mScaleCallbacks)
+				.append(", childrenTouched=").append(mChildrenTouched)
+				.append(", layoutRequests=").append(mLayoutRequests)
+				.append(", viewBinds=").append(mViewBinds)
+				.append(", firstFrameMs=").append(getTimeToFirstFrameMillis())
+				.append(", settleMs=").append(getSettleTimeMillis())
+				.append(", frames=").append(mFrameCount)
+				.append(", maxFrameMs=").append(getMaxFrameMillis())
+				.append(", histogram=[");
+		for (int i = 0; i < FRAME_BUCKET_COUNT; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] : ">=" + BUCKET_BOUNDS_MILLIS[i - 1])
+					.append(':').append(mFrameBuckets[i]);
+		}
+		return sb.append("]}").toString();
+	}
+
+	private static float toMillis(long nanos) {
+		return nanos < 0 ? -1 : ((float) nanos) / NANOS_PER_MILLI;
+	}
+
+////=========================================================================================
+//// Recording
+////=========================================================================================
+
+	/**
+	 * @return True between beginGesture() and endGesture().
+	 */
+	boolean isRecording() {
+		return mRecording;
+	}
+
+	/**
+	 * Zeroes the stats and starts recording a gesture.
+	 */
+	void beginGesture(long nowNanos) {
+		reset();
+		mRecording = true;
+		mGestureStartNanos = nowNanos;
+	}
+
+	/**
+	 * Marks the fingers lifting; the settle animation starts.
+	 */
+	void beginSettle(long nowNanos) {
+		if (mRecording) {
+			mSettleStartNanos = nowNanos;
+		}
+	}
+
+	/**
+	 * Stops recording, closing the settle time if the gesture settled.
+	 */
+	void endGesture(long nowNanos) {
+		if (!mRecording) {
+			return;
+		}
+		if (mSettleStartNanos >= 0) {
+			mSettleNanos = nowNanos - mSettleStartNanos;
+		}
+		mRecording = false;
+	}
+
+	void onScale() {
+		if (mRecording) {
+			mScaleCallbacks++;
+		}
+	}
+
+	void onChildrenTouched(int count) {
+		if (mRecording && count > 0) {
+			mChildrenTouched += count;
+			mFramePending = true;
+		}
+	}
+
+	void onLayoutRequested() {
+		if (mRecording) {
+			mLayoutRequests++;
+		}
+	}
+
+	void onViewBound() {
+		if (mRecording) {
+			mViewBinds++;
+		}
+	}
+
+	/**
+	 * Starts timing work on the current frame.
+	 */
+	void beginWork(long nowNanos) {
+		if (mRecording && mWorkStartNanos < 0) {
+			mWorkStartNanos = nowNanos;
+		}
+	}
+
+	/**
+	 * Adds the time since beginWork() to the current frame.
+	 */
+	void endWork(long nowNanos) {
+		if (mWorkStartNanos >= 0) {
+			mFrameWorkNanos += nowNanos - mWorkStartNanos;
+			mWorkStartNanos = -1;
+		}
+	}
+
+	/**
+	 * Closes the current frame once it has been drawn, adding it to the histogram
+	 * if the pinch changed anything in it.
+	 */
+	void endFrame(long nowNanos) {
+		if (!mRecording) {
+			return;
+		}
+		if (mFramePending) {
+			if (mTimeToFirstFrameNanos < 0) {
+				mTimeToFirstFrameNanos = nowNanos - mGestureStartNanos;
+			}
+			final long frameNanos = mFrameWorkNanos;
+			final long frameMillis = frameNanos / NANOS_PER_MILLI;
+			int bucket = 0;
+			while (bucket < BUCKET_BOUNDS_MILLIS.length && frameMillis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+				bucket++;
+			}
+			mFrameBuckets[bucket]++;
+			mFrameCount++;
+			if (frameNanos > mMaxFrameNanos) {
+				mMaxFrameNanos = frameNanos;
+			}
+		}
+		mFramePending = false;
+		mFrameWorkNanos = 0;
+	}
+}
@@ -0,0 +1,84 @@
+package me.jmhend.PinchListView;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Optional android.os.Trace sections around PinchListView's pinch hot paths,
+ * so a systrace attributes pinch frame time to its stages rather than one opaque layout.
+ *
+ * Off by default; while off, each section costs a static field read.
+ * Sections are only emitted on API 18+, where android.os.Trace exists.
+ *
+ * @author jmhend
+ *
+ */
+public final class PinchTrace {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	static final String SCALE = "PinchListView#onScale";
+	static final String SET_CHILDREN_HEIGHT = "PinchListView#setChildrenHeight";
+	static final String RESOLVE_ANCHOR = "PinchListView#resolveAnchor";
+	static final String DISPATCH_LISTENERS = "PinchListView#dispatchPinchFrame";
+	static final String ANIMATION_FRAME = "PinchListView#animationFrame";
+
+	private static final boolean SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private static boolean sEnabled = false;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	private PinchTrace() { }
+
+////=========================================================================================
+//// Toggle
+////=========================================================================================
+
+	/**
+	 * @return True if pinch trace sections are emitted.
+	 */
+	public static boolean isEnabled() {
+		return sEnabled;
+	}
+
+	/**
+	 * Turns pinch trace sections on or off. Ignored below API 18.
+	 * Toggle it between gestures, so no section is left open.
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		sEnabled = enabled && SUPPORTED;
+	}
+
+////=========================================================================================
+//// Sections
+////=========================================================================================
+
+	/**
+	 * Opens the trace section 'name', if tracing is enabled.
+	 * @param name
+	 */
+	static void begin(String name) {
+		if (sEnabled) {
+			Trace.beginSection(name);
+		}
+	}
+
+	/**
+	 * Closes the innermost trace section, if tracing is enabled.
+	 */
+	static void end() {
+		if (sEnabled) {
+			Trace.endSection();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package me.jmhend.PinchListView;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.SparseArray;
+import android.view.View;
+
+/**
+ * Binds rows that are about to scroll into a PinchListView ahead of time, while the
+ * main thread is idle between frames, and holds them until the list asks for them.
+ *
+ * A settle animation knows where it'll end, so the rows it will bring into view
+ * can be inflated and bound before the frames that show them, instead of inside them.
+ * Rows are only held for one settle: whatever the list hasn't taken by the layout
+ * after the settle ends is dropped.
+ *
+ * @author jmhend
+ *
+ */
+class RowPrefetcher implements MessageQueue.IdleHandler {
+
+////=========================================================================================
+//// Static constants.
+////=========================================================================================
+
+	/**
+	 * Time spent binding rows per idle callback, after the first.
+	 */
+	private static final long IDLE_BUDGET_NANOS = 2000000L;
+
+////=========================================================================================
+//// Member variables.
+////=========================================================================================
+
+	private final PinchListView mListView;
+
+	private int[] mPending = new int[0];
+	private int mPendingHead;
+	private int mPendingEnd;
+
+	/**
+	 * Rows bound ahead of time, by adapter position.
+	 */
+	private final SparseArray<View> mViews = new SparseArray<View>();
+
+	private boolean mRegistered;
+	private boolean mDropAfterLayout;
+
+////=========================================================================================
+//// Constructor.
+////=========================================================================================
+
+	/**
+	 * @param listView
+	 */
+	RowPrefetcher(PinchListView listView) {
+		mListView = listView;
+	}
+
+////=========================================================================================
+//// Prefetching
+////=========================================================================================
+
+	/**
+	 * Drops every row held from an earlier settle, and makes room for 'capacity' rows.
+	 * @param capacity The most rows to bind for this settle.
+	 */
+	void start(int capacity) {
+		clear();
+		if (capacity > mPending.length) {
+			mPending = new int[capacity];
+		}
+	}
+
+	/**
+	 * Queues the row at adapter position 'position' to be bound when the main thread is next idle.
+	 * Each position is requested at most once per start().
+	 * @param position
+	 * @return False if the prefetcher is full.
+	 */
+	boolean request(int position) {
+		if (mPendingEnd == mPending.length) {
+			return false;
+		}
+		mPending[mPendingEnd++] = position;
+		if (!mRegistered) {
+			mRegistered = true;
+			Looper.myQueue().addIdleHandler(this);
+		}
+		return true;
+	}
+
+	/**
+	 * @param position
+	 * @return The View bound ahead of time for the row at adapter position 'position',
+	 * which the prefetcher lets go of, or null if there isn't one.
+	 */
+	View take(int position) {
+		final int index = mViews.indexOfKey(position);
+		if (index < 0) {
+			return null;
+		}
+		final View view = mViews.valueAt(index);
+		mViews.removeAt(index);
+		return view;
+	}
+
+	/**
+	 * Stops binding queued rows, and drops the rows still held once the list next lays out,
+	 * after it's had the chance to take the ones it shows.
+	 */
+	void dropAfterLayout() {
+		stopBinding();
+		mDropAfterLayout = mViews.size() > 0;
+	}
+
+	/**
+	 * Called once the list has laid out its children.
+	 */
+	void onLayout() {
+		if (mDropAfterLayout) {
+			clear();
+		}
+	}
+
+	/**
+	 * Drops every queued row and every row bound ahead of time.
+	 */
+	void clear() {
+		mViews.clear();
+		mDropAfterLayout = false;
+		stopBinding();
+	}
+
+	private void stopBinding() {
+		mPendingHead = 0;
+		mPendingEnd = 0;
+		if (mRegistered) {
+			mRegistered = false;
+			Looper.myQueue().removeIdleHandler(this);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see android.os.MessageQueue.IdleHandler#queueIdle()
+	 */
+	@Override
+	public boolean queueIdle() {
+		final long start = System.nanoTime();
+		while (mPendingHead < mPendingEnd) {
+			final int position = mPending[mPendingHead++];
+			final View view = mListView.prefetchRow(position);
+			if (view != null) {
+				mViews.put(position, view);
+			}
+			if (System.nanoTime() - start >= IDLE_BUDGET_NANOS) {
+				break;
+			}
+		}
+		mRegistered = mPendingHead < mPendingEnd;
+		return mRegistered;
+	}
+}
@@ -20,8 +20,8 @@ package me.jmhend.PinchListView;
  * limitations under the License.
  */
 
+import me.jmhend.PinchListView.core.SpanMath;
 import android.content.Context;
-import android.util.FloatMath;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
@@ -33,6 +33,11 @@ import android.view.ViewConfiguration;
  *
  * This class should only be used with {@link MotionEvent}s reported via touch.
  *
+ * Unlike the platform detector, it reads each MOVE's batched historical samples
+ * into the span velocity, so the velocity reflects every sample the touchscreen
+ * reported, while still calling onScale() at most once per batch. It doesn't
+ * allocate once its pointer arrays have grown to the gesture's pointer count.
+ *
  * To use this class:
  * <ul>
  *  <li>Create an instance of the {@code ScaleGestureDetector} for your
@@ -45,6 +50,16 @@ import android.view.ViewConfiguration;
 public class SupportScaleGestureDetector {
     private static final String TAG = "ScaleGestureDetector";
 
+    /**
+     * Weight of the newest sample in the smoothed span velocity.
+     */
+    private static final float VELOCITY_SMOOTHING = 0.6f;
+
+    /**
+     * If the span hasn't moved for this long, it's considered at rest.
+     */
+    private static final long VELOCITY_STALE_MILLIS = 40;
+
     /**
      * The listener for receiving notifications when gestures occur.
      * If you want to listen for all the different gestures then implement
@@ -145,6 +160,15 @@ public class SupportScaleGestureDetector {
     private boolean mInProgress;
     private int mSpanSlop;
 
+    private final SpanMath mSpanMath = new SpanMath();
+    private float[] mPointerX = new float[2];
+    private float[] mPointerY = new float[2];
+
+    private float mSpanVelocity;
+    private float mVelocitySpan;
+    private long mVelocityTime;
+    private long mLastEventTime;
+
 
     public SupportScaleGestureDetector(Context context, OnSupportScaleGestureListener listener) {
         mContext = context;
@@ -167,6 +191,7 @@ public class SupportScaleGestureDetector {
     public boolean onTouchEvent(MotionEvent event) {
 
         final int action = event.getActionMasked();
+        mLastEventTime = event.getEventTime();
 
         final boolean streamComplete = action == MotionEvent.ACTION_UP ||
                 action == MotionEvent.ACTION_CANCEL;
@@ -191,34 +216,14 @@ public class SupportScaleGestureDetector {
         final boolean pointerUp = action == MotionEvent.ACTION_POINTER_UP;
         final int skipIndex = pointerUp ? event.getActionIndex() : -1;
 
-        // Determine focal point
-        float sumX = 0, sumY = 0;
+        // Determine focal point and span
         final int count = event.getPointerCount();
-        for (int i = 0; i < count; i++) {
-            if (skipIndex == i) continue;
-            sumX += event.getX(i);
-            sumY += event.getY(i);
-        }
-        final int div = pointerUp ? count - 1 : count;
-        final float focusX = sumX / div;
-        final float focusY = sumY / div;
-
-        // Determine average deviation from focal point
-        float devSumX = 0, devSumY = 0;
-        for (int i = 0; i < count; i++) {
-            if (skipIndex == i) continue;
-            devSumX += Math.abs(event.getX(i) - focusX);
-            devSumY += Math.abs(event.getY(i) - focusY);
-        }
-        final float devX = devSumX / div;
-        final float devY = devSumY / div;
-
-        // Span is the average distance between touch points through the focal point;
-        // i.e. the diameter of the circle with a radius of the average deviation from
-        // the focal point.
-        final float spanX = devX * 2;
-        final float spanY = devY * 2;
-        final float span = FloatMath.sqrt(spanX * spanX + spanY * spanY);
+        computeSample(event, -1, count, skipIndex);
+        final float focusX = mSpanMath.getFocusX();
+        final float focusY = mSpanMath.getFocusY();
+        final float spanX = mSpanMath.getSpanX();
+        final float spanY = mSpanMath.getSpanY();
+        final float span = mSpanMath.getSpan();
 
         // Dispatch begin/end events as needed.
         // If the configuration changes, notify the app to reset its current state by beginning
@@ -235,12 +240,15 @@ public class SupportScaleGestureDetector {
             mPrevSpanX = mCurrSpanX = spanX;
             mPrevSpanY = mCurrSpanY = spanY;
             mInitialSpan = mPrevSpan = mCurrSpan = span;
+            mPrevTime = mCurrTime = event.getEventTime();
         }
         if (!mInProgress && span != 0 &&
                 (wasInProgress || Math.abs(span - mInitialSpan) > mSpanSlop)) {
             mPrevSpanX = mCurrSpanX = spanX;
             mPrevSpanY = mCurrSpanY = spanY;
             mPrevSpan = mCurrSpan = span;
+            mPrevTime = mCurrTime = event.getEventTime();
+            resetSpanVelocity(span, mCurrTime);
             mInProgress = mListener.onScaleBegin(this);
         }
 
@@ -249,9 +257,17 @@ public class SupportScaleGestureDetector {
             mCurrSpanX = spanX;
             mCurrSpanY = spanY;
             mCurrSpan = span;
+            mCurrTime = event.getEventTime();
 
             boolean updatePrev = true;
             if (mInProgress) {
+                // Fold the batch's samples into the velocity, then report the batch once.
+                final int historySize = event.getHistorySize();
+                for (int h = 0; h < historySize; h++) {
+                    computeSample(event, h, count, skipIndex);
+                    trackSpanVelocity(mSpanMath.getSpan(), event.getHistoricalEventTime(h));
+                }
+                trackSpanVelocity(span, mCurrTime);
                 updatePrev = mListener.onScale(this);
             }
 
@@ -259,12 +275,57 @@ public class SupportScaleGestureDetector {
                 mPrevSpanX = mCurrSpanX;
                 mPrevSpanY = mCurrSpanY;
                 mPrevSpan = mCurrSpan;
+                mPrevTime = mCurrTime;
             }
         }
 
         return true;
     }
 
+    /**
+     * Computes the focal point and span of one of 'event's samples into mSpanMath.
+     * @param sample Index of a historical sample, or -1 for the current one.
+     */
+    private void computeSample(MotionEvent event, int sample, int count, int skipIndex) {
+        if (mPointerX.length < count) {
+            mPointerX = new float[count];
+            mPointerY = new float[count];
+        }
+        for (int i = 0; i < count; i++) {
+            if (sample < 0) {
+                mPointerX[i] = event.getX(i);
+                mPointerY[i] = event.getY(i);
+            } else {
+                mPointerX[i] = event.getHistoricalX(i, sample);
+                mPointerY[i] = event.getHistoricalY(i, sample);
+            }
+        }
+        mSpanMath.compute(mPointerX, mPointerY, count, skipIndex);
+    }
+
+    /**
+     * Folds a sample's span into the smoothed span velocity.
+     */
+    private void trackSpanVelocity(float span, long time) {
+        final long timeDelta = time - mVelocityTime;
+        if (timeDelta <= 0) {
+            return;
+        }
+        final float velocity = (span - mVelocitySpan) * 1000.0f / timeDelta;
+        mSpanVelocity = VELOCITY_SMOOTHING * velocity + (1.0f - VELOCITY_SMOOTHING) * mSpanVelocity;
+        mVelocitySpan = span;
+        mVelocityTime = time;
+    }
+
+    /**
+     * Clears the span velocity at the start of a gesture.
+     */
+    private void resetSpanVelocity(float span, long time) {
+        mSpanVelocity = 0.0f;
+        mVelocitySpan = span;
+        mVelocityTime = time;
+    }
+
     /**
      * Returns {@code true} if a scale gesture is in progress.
      */
@@ -389,4 +450,18 @@ public class SupportScaleGestureDetector {
     public long getEventTime() {
         return mCurrTime;
     }
+
+    /**
+     * Return the smoothed rate at which the span is changing, over every
+     * sample of the gesture, including batched historical ones.
+     *
+     * @return Span velocity in pixels per second; positive while the pointers
+     *         spread apart, zero once they come to rest.
+     */
+    public float getSpanVelocity() {
+        if (mLastEventTime - mVelocityTime > VELOCITY_STALE_MILLIS) {
+            return 0.0f;
+        }
+        return mSpanVelocity;
+    }
 }
\ No newline at end of file